@@ -1,16 +1,27 @@
 package com.racephotos.api.admin.events;
 
+import com.racephotos.api.admin.events.dto.FaceIndexingJobResponse;
+import com.racephotos.api.admin.events.dto.RetryIndexingRequest;
+import com.racephotos.api.admin.events.dto.RetryIndexingResponse;
 import com.racephotos.auth.session.SessionUser;
+import com.racephotos.domain.photo.FaceIndexingJob;
 import com.racephotos.service.ingestion.FaceIndexingJobService;
+import com.racephotos.service.ingestion.IndexingRetryScheduler;
+import com.racephotos.service.search.FaceClusteringService;
+import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -18,20 +29,86 @@ import java.util.UUID;
 public class FaceIndexingAdminController {
 
     private final FaceIndexingJobService faceIndexingJobService;
+    private final IndexingRetryScheduler indexingRetryScheduler;
+    private final FaceClusteringService faceClusteringService;
 
-    public FaceIndexingAdminController(FaceIndexingJobService faceIndexingJobService) {
+    public FaceIndexingAdminController(
+            FaceIndexingJobService faceIndexingJobService,
+            IndexingRetryScheduler indexingRetryScheduler,
+            FaceClusteringService faceClusteringService
+    ) {
         this.faceIndexingJobService = faceIndexingJobService;
+        this.indexingRetryScheduler = indexingRetryScheduler;
+        this.faceClusteringService = faceClusteringService;
     }
 
     @PostMapping("/{eventId}/index-faces")
-    public ResponseEntity<Void> triggerIndexing(
+    public ResponseEntity<FaceIndexingJobResponse> triggerIndexing(
+            @AuthenticationPrincipal SessionUser user,
+            @PathVariable UUID eventId
+    ) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        FaceIndexingJob job = faceIndexingJobService.startOrAttach(eventId);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/jobs/{jobId}")
+                        .buildAndExpand(job.getId())
+                        .toUri())
+                .body(FaceIndexingJobResponse.from(job));
+    }
+
+    @PostMapping(path = "/{eventId}/index-faces/retry", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<RetryIndexingResponse> retryIndexing(
+            @AuthenticationPrincipal SessionUser user,
+            @PathVariable UUID eventId,
+            @Valid @RequestBody RetryIndexingRequest request
+    ) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        int rescheduled = indexingRetryScheduler.forceRetry(eventId, request.objectKeys());
+        return ResponseEntity.accepted().body(new RetryIndexingResponse(request.objectKeys().size(), rescheduled));
+    }
+
+    @GetMapping("/{eventId}/index-faces/jobs")
+    public ResponseEntity<List<FaceIndexingJobResponse>> listJobs(
+            @AuthenticationPrincipal SessionUser user,
+            @PathVariable UUID eventId
+    ) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(faceIndexingJobService.listJobs(eventId).stream()
+                .map(FaceIndexingJobResponse::from)
+                .toList());
+    }
+
+    @GetMapping("/{eventId}/index-faces/jobs/{jobId}")
+    public ResponseEntity<FaceIndexingJobResponse> getJob(
+            @AuthenticationPrincipal SessionUser user,
+            @PathVariable UUID eventId,
+            @PathVariable UUID jobId
+    ) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return faceIndexingJobService.findJob(eventId, jobId)
+                .map(FaceIndexingJobResponse::from)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/{eventId}/cluster-faces")
+    public ResponseEntity<Void> triggerClustering(
             @AuthenticationPrincipal SessionUser user,
             @PathVariable UUID eventId
     ) {
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        faceIndexingJobService.indexUnindexedAsync(eventId);
+        faceClusteringService.start(eventId);
         return ResponseEntity.accepted().build();
     }
 }
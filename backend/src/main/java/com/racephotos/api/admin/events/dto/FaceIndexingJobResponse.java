@@ -0,0 +1,39 @@
+package com.racephotos.api.admin.events.dto;
+
+import com.racephotos.domain.photo.FaceIndexingJob;
+import com.racephotos.domain.photo.FaceIndexingJobStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record FaceIndexingJobResponse(
+        UUID id,
+        UUID eventId,
+        FaceIndexingJobStatus status,
+        int scheduledImages,
+        int indexedImages,
+        int failedImages,
+        int totalFaces,
+        UUID lastCursor,
+        String lastError,
+        Instant startedAt,
+        Instant finishedAt,
+        Instant heartbeatAt
+) {
+    public static FaceIndexingJobResponse from(FaceIndexingJob job) {
+        return new FaceIndexingJobResponse(
+                job.getId(),
+                job.getEventId(),
+                job.getStatus(),
+                job.getScheduledImages(),
+                job.getIndexedImages(),
+                job.getFailedImages(),
+                job.getTotalFaces(),
+                job.getLastCursor(),
+                job.getLastError(),
+                job.getStartedAt(),
+                job.getFinishedAt(),
+                job.getHeartbeatAt()
+        );
+    }
+}
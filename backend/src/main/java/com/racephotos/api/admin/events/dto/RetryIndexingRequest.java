@@ -0,0 +1,13 @@
+package com.racephotos.api.admin.events.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record RetryIndexingRequest(
+        @NotEmpty
+        @Size(max = 1000)
+        List<String> objectKeys
+) {
+}
@@ -0,0 +1,4 @@
+package com.racephotos.api.admin.events.dto;
+
+public record RetryIndexingResponse(int requestedKeys, int rescheduledAssets) {
+}
@@ -1,10 +1,18 @@
 package com.racephotos.api.search;
 
+import com.racephotos.api.search.dto.FaceIdSearchRequest;
 import com.racephotos.api.search.dto.FaceSearchRequest;
 import com.racephotos.api.search.dto.FaceSearchResponse;
+import com.racephotos.api.search.dto.FaceSearchSummaryResponse;
+import com.racephotos.api.search.dto.SearchStreamFailure;
 import com.racephotos.auth.session.SessionUser;
 import com.racephotos.service.search.FaceSearchService;
+import com.racephotos.service.search.FaceSearchService.Match;
+import com.racephotos.service.search.FaceSearchService.SearchSummary;
 import jakarta.validation.Valid;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -13,15 +21,30 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping(path = "/api/search", produces = MediaType.APPLICATION_JSON_VALUE)
 public class FaceSearchController {
 
+    private static final Logger log = LogManager.getLogger(FaceSearchController.class);
+
     private final FaceSearchService faceSearchService;
+    private final Executor streamExecutor;
 
-    public FaceSearchController(FaceSearchService faceSearchService) {
+    public FaceSearchController(
+            FaceSearchService faceSearchService,
+            @Qualifier("faceSearchStreamExecutor") Executor streamExecutor
+    ) {
         this.faceSearchService = faceSearchService;
+        this.streamExecutor = streamExecutor;
     }
 
     @PostMapping(path = "/faces", consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -35,4 +58,87 @@ public class FaceSearchController {
         var result = faceSearchService.searchFaces(request.eventId(), request.photoKey());
         return ResponseEntity.ok(FaceSearchResponse.from(result));
     }
+
+    @PostMapping(path = "/faces/by-face-id", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<FaceSearchResponse> searchByFaceId(
+            @AuthenticationPrincipal SessionUser user,
+            @Valid @RequestBody FaceIdSearchRequest request
+    ) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        var result = faceSearchService.searchFacesByFaceId(request.eventId(), request.faceId());
+        return ResponseEntity.ok(FaceSearchResponse.from(result));
+    }
+
+    /**
+     * Streaming variant of {@link #search}: server-sent {@code match} events as photos are resolved, best first,
+     * followed by a {@code summary} event with timings, or a {@code failed} event.
+     */
+    @PostMapping(path = "/faces/stream", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamSearch(
+            @AuthenticationPrincipal SessionUser user,
+            @Valid @RequestBody FaceSearchRequest request
+    ) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(stream(onMatch ->
+                faceSearchService.streamSearchFaces(request.eventId(), request.photoKey(), onMatch)));
+    }
+
+    @PostMapping(path = "/faces/by-face-id/stream", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamSearchByFaceId(
+            @AuthenticationPrincipal SessionUser user,
+            @Valid @RequestBody FaceIdSearchRequest request
+    ) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(stream(onMatch ->
+                faceSearchService.streamSearchFacesByFaceId(request.eventId(), request.faceId(), onMatch)));
+    }
+
+    private SseEmitter stream(Function<Consumer<Match>, SearchSummary> search) {
+        SseEmitter emitter = new SseEmitter();
+        streamExecutor.execute(() -> {
+            try {
+                SearchSummary summary = search.apply(match -> send(emitter, "match", FaceSearchResponse.Match.from(match)));
+                send(emitter, "summary", FaceSearchSummaryResponse.from(summary));
+                emitter.complete();
+            } catch (UncheckedIOException e) {
+                // Client went away; nothing left to tell it.
+                emitter.completeWithError(e.getCause());
+            } catch (RuntimeException e) {
+                HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
+                String reason = "Search failed";
+                if (e instanceof ResponseStatusException statusException) {
+                    status = HttpStatus.valueOf(statusException.getStatusCode().value());
+                    reason = statusException.getReason();
+                } else if (e instanceof IllegalArgumentException) {
+                    status = HttpStatus.BAD_REQUEST;
+                    reason = e.getMessage();
+                } else {
+                    log.error("Streamed face search failed", e);
+                }
+                try {
+                    send(emitter, "failed", new SearchStreamFailure(status.value(), reason));
+                    emitter.complete();
+                } catch (UncheckedIOException sendFailure) {
+                    emitter.completeWithError(sendFailure.getCause());
+                }
+            }
+        });
+        return emitter;
+    }
+
+    private static void send(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
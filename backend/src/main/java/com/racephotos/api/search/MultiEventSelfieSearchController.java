@@ -0,0 +1,108 @@
+package com.racephotos.api.search;
+
+import com.racephotos.api.search.dto.EventSearchFailure;
+import com.racephotos.api.search.dto.SelfieSearchResponse;
+import com.racephotos.auth.session.SessionUser;
+import com.racephotos.auth.user.AccessGrantStatus;
+import com.racephotos.auth.user.EventAccessGrant;
+import com.racephotos.auth.user.EventAccessGrantRepository;
+import com.racephotos.auth.user.UserSelfie;
+import com.racephotos.auth.user.UserSelfieRepository;
+import com.racephotos.service.selfie.SelfieFanOutSearchService;
+import com.racephotos.service.selfie.SelfieFanOutSearchService.EventSearchOutcome;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Selfie search across all events the user has access to. Results are streamed as server-sent events: one
+ * {@code result} or {@code failed} per event in completion order, each with the event id as its id, then a final
+ * {@code done}. The names match the single-event streams of {@link FaceSearchController}.
+ */
+@RestController
+@RequestMapping(path = "/api/search/selfie", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+public class MultiEventSelfieSearchController {
+
+    private final SelfieFanOutSearchService fanOutSearchService;
+    private final EventAccessGrantRepository accessGrantRepository;
+    private final UserSelfieRepository userSelfieRepository;
+
+    public MultiEventSelfieSearchController(
+            SelfieFanOutSearchService fanOutSearchService,
+            EventAccessGrantRepository accessGrantRepository,
+            UserSelfieRepository userSelfieRepository
+    ) {
+        this.fanOutSearchService = Objects.requireNonNull(fanOutSearchService, "fanOutSearchService");
+        this.accessGrantRepository = Objects.requireNonNull(accessGrantRepository, "accessGrantRepository");
+        this.userSelfieRepository = Objects.requireNonNull(userSelfieRepository, "userSelfieRepository");
+    }
+
+    @GetMapping("/events")
+    public ResponseEntity<SseEmitter> searchAccessibleEvents(@AuthenticationPrincipal SessionUser user) {
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        UserSelfie selfie = userSelfieRepository.findByUserId(user.id())
+                .orElse(null);
+        if (selfie == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+
+        // The session's event list may predate a revoked grant.
+        Set<UUID> granted = accessGrantRepository.findByUserIdAndStatus(user.id(), AccessGrantStatus.ACTIVE)
+                .stream()
+                .map(EventAccessGrant::getEventId)
+                .collect(Collectors.toSet());
+        List<UUID> eventIds = user.accessibleEventIds() == null ? List.of() : user.accessibleEventIds().stream()
+                .filter(granted::contains)
+                .toList();
+
+        SseEmitter emitter = new SseEmitter(fanOutSearchService.streamTimeout().toMillis());
+        fanOutSearchService.searchEvents(user.id(), selfie, eventIds, outcome -> send(emitter, outcome))
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        emitter.completeWithError(error);
+                        return;
+                    }
+                    try {
+                        emitter.send(SseEmitter.event().name("done").data(eventIds.size()));
+                        emitter.complete();
+                    } catch (IOException e) {
+                        emitter.completeWithError(e);
+                    }
+                });
+        return ResponseEntity.ok(emitter);
+    }
+
+    private static void send(SseEmitter emitter, EventSearchOutcome outcome) {
+        try {
+            if (outcome.result() != null) {
+                emitter.send(SseEmitter.event()
+                        .name("result")
+                        .id(outcome.eventId().toString())
+                        .data(SelfieSearchResponse.from(outcome.result()), MediaType.APPLICATION_JSON));
+            } else {
+                emitter.send(SseEmitter.event()
+                        .name("failed")
+                        .id(outcome.eventId().toString())
+                        .data(new EventSearchFailure(outcome.eventId().toString(), outcome.error(), outcome.elapsedMillis()),
+                                MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
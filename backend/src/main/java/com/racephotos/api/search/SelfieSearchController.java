@@ -6,7 +6,7 @@ import com.racephotos.auth.user.AccessGrantStatus;
 import com.racephotos.auth.user.EventAccessGrantRepository;
 import com.racephotos.auth.user.UserSelfie;
 import com.racephotos.auth.user.UserSelfieRepository;
-import com.racephotos.service.search.FaceSearchService;
+import com.racephotos.service.selfie.SelfieMatchService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -23,16 +23,16 @@ import java.util.UUID;
 @RequestMapping(path = "/api/{eventId}/search", produces = MediaType.APPLICATION_JSON_VALUE)
 public class SelfieSearchController {
 
-    private final FaceSearchService faceSearchService;
+    private final SelfieMatchService selfieMatchService;
     private final EventAccessGrantRepository accessGrantRepository;
     private final UserSelfieRepository userSelfieRepository;
 
     public SelfieSearchController(
-            FaceSearchService faceSearchService,
+            SelfieMatchService selfieMatchService,
             EventAccessGrantRepository accessGrantRepository,
             UserSelfieRepository userSelfieRepository
     ) {
-        this.faceSearchService = Objects.requireNonNull(faceSearchService, "faceSearchService");
+        this.selfieMatchService = Objects.requireNonNull(selfieMatchService, "selfieMatchService");
         this.accessGrantRepository = Objects.requireNonNull(accessGrantRepository, "accessGrantRepository");
         this.userSelfieRepository = Objects.requireNonNull(userSelfieRepository, "userSelfieRepository");
     }
@@ -59,7 +59,7 @@ public class SelfieSearchController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
 
-        var result = faceSearchService.searchFaces(eventId.toString(), selfie.getS3Key());
+        var result = selfieMatchService.findMatches(user.id(), eventId, selfie);
         return ResponseEntity.ok(SelfieSearchResponse.from(result));
     }
 }
@@ -0,0 +1,3 @@
+package com.racephotos.api.search.dto;
+
+public record EventSearchFailure(String eventId, String reason, long elapsedMillis) { }
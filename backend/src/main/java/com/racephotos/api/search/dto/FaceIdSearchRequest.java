@@ -0,0 +1,11 @@
+package com.racephotos.api.search.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record FaceIdSearchRequest(
+        @NotBlank
+        String eventId,
+        @NotBlank
+        String faceId
+) {
+}
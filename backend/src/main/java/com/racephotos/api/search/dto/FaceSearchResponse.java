@@ -16,13 +16,7 @@ public record FaceSearchResponse(
                 result.probePhotoKey(),
                 result.matches()
                         .stream()
-                        .map(match -> new Match(
-                                match.photoUrl(),
-                                match.faceId(),
-                                match.similarity(),
-                                match.confidence(),
-                                BoundingBoxPayload.from(match.boundingBox())
-                        ))
+                        .map(Match::from)
                         .toList()
         );
     }
@@ -34,6 +28,15 @@ public record FaceSearchResponse(
             Float confidence,
             BoundingBoxPayload boundingBox
     ) {
+        public static Match from(FaceSearchService.Match match) {
+            return new Match(
+                    match.photoUrl(),
+                    match.faceId(),
+                    match.similarity(),
+                    match.confidence(),
+                    BoundingBoxPayload.from(match.boundingBox())
+            );
+        }
     }
 
     public record BoundingBoxPayload(Float left, Float top, Float width, Float height) {
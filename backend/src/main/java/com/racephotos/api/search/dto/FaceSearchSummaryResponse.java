@@ -0,0 +1,27 @@
+package com.racephotos.api.search.dto;
+
+import com.racephotos.service.search.FaceSearchService;
+
+public record FaceSearchSummaryResponse(
+        String eventId,
+        String probePhotoKey,
+        int matches,
+        String source,
+        long totalMillis,
+        Long searchMillis,
+        Long metadataMillis,
+        Long presignMillis
+) {
+    public static FaceSearchSummaryResponse from(FaceSearchService.SearchSummary summary) {
+        return new FaceSearchSummaryResponse(
+                summary.eventId(),
+                summary.probePhotoKey(),
+                summary.matches(),
+                summary.source().name(),
+                summary.totalMillis(),
+                summary.searchMillis(),
+                summary.metadataMillis(),
+                summary.presignMillis()
+        );
+    }
+}
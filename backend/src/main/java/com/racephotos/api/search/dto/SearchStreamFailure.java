@@ -0,0 +1,3 @@
+package com.racephotos.api.search.dto;
+
+public record SearchStreamFailure(int status, String reason) { }
@@ -1,6 +1,8 @@
 package com.racephotos.auth.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,4 +15,7 @@ public interface EventAccessGrantRepository extends JpaRepository<EventAccessGra
     List<EventAccessGrant> findByUserIdAndStatus(UUID userId, AccessGrantStatus status);
 
     List<EventAccessGrant> findByEmailIgnoreCaseAndStatus(String email, AccessGrantStatus status);
+
+    @Query("select distinct g.user.id from EventAccessGrant g where g.eventId = :eventId and g.status = :status and g.user is not null")
+    List<UUID> findUserIdsByEventIdAndStatus(@Param("eventId") UUID eventId, @Param("status") AccessGrantStatus status);
 }
@@ -0,0 +1,90 @@
+package com.racephotos.auth.user;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Records that the event's already indexed photos were searched with the user's selfie face. From then on new photos
+ * reach {@link UserPhotoMatch} through reverse matching, until the selfie face changes or {@code reseedAfter} passes.
+ * A first seed is provisional for one eligible-users cache period, and reverse matching that fails for the event
+ * expires every seed of it.
+ */
+@Entity
+@Table(name = "selfie_match_seeds",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uq_selfie_match_seed", columnNames = {"user_id", "event_id"})
+        },
+        indexes = {
+                @Index(name = "idx_selfie_match_seed_event", columnList = "event_id")
+        })
+public class SelfieMatchSeed {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "event_id", nullable = false)
+    private UUID eventId;
+
+    @Column(name = "selfie_face_id", nullable = false, length = 255)
+    private String selfieFaceId;
+
+    @Column(name = "seeded_at", nullable = false)
+    private Instant seededAt;
+
+    @Column(name = "reseed_after")
+    private Instant reseedAfter;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public UUID getEventId() {
+        return eventId;
+    }
+
+    public String getSelfieFaceId() {
+        return selfieFaceId;
+    }
+
+    public Instant getSeededAt() {
+        return seededAt;
+    }
+
+    public Instant getReseedAfter() {
+        return reseedAfter;
+    }
+
+    public boolean isCurrent(String faceId, Instant now) {
+        return Objects.equals(selfieFaceId, faceId) && (reseedAfter == null || reseedAfter.isAfter(now));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SelfieMatchSeed that)) return false;
+        return id != null && Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+}
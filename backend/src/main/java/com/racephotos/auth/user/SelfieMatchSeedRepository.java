@@ -0,0 +1,55 @@
+package com.racephotos.auth.user;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface SelfieMatchSeedRepository extends JpaRepository<SelfieMatchSeed, UUID> {
+
+    Optional<SelfieMatchSeed> findByUserIdAndEventId(UUID userId, UUID eventId);
+
+    /**
+     * Records a seed search that started at {@code startedAt}. Repeating the search for the same face settles the seed
+     * (no {@code reseed_after}) unless the seed was expired again while the search ran; a seed for a new face is
+     * provisional until {@code provisionalUntil}.
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into selfie_match_seeds (id, user_id, event_id, selfie_face_id, seeded_at, reseed_after)
+            values (gen_random_uuid(), :userId, :eventId, :selfieFaceId, :startedAt, :provisionalUntil)
+            on conflict (user_id, event_id) do update
+            set selfie_face_id = excluded.selfie_face_id, seeded_at = excluded.seeded_at,
+                reseed_after = case
+                    when selfie_match_seeds.selfie_face_id <> excluded.selfie_face_id then excluded.reseed_after
+                    when selfie_match_seeds.reseed_after >= excluded.seeded_at then selfie_match_seeds.reseed_after
+                    else null
+                end
+            """)
+    int upsert(
+            @Param("userId") UUID userId,
+            @Param("eventId") UUID eventId,
+            @Param("selfieFaceId") String selfieFaceId,
+            @Param("startedAt") Instant startedAt,
+            @Param("provisionalUntil") Instant provisionalUntil
+    );
+
+    /**
+     * Expires every seed of the event, so the next selfie search re-seeds from the indexed photos.
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = "update selfie_match_seeds set reseed_after = :now where event_id = :eventId")
+    int expireByEventId(@Param("eventId") UUID eventId, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = "delete from selfie_match_seeds where user_id = :userId")
+    int deleteByUserId(@Param("userId") UUID userId);
+}
@@ -0,0 +1,121 @@
+package com.racephotos.auth.user;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A photo of an event in which the user's selfie was recognised. One row per user, event and photo, holding the best
+ * matching face of that photo. Rows are written with upserts by {@link UserPhotoMatchRepository#upsert}.
+ */
+@Entity
+@Table(name = "user_photo_matches", uniqueConstraints = {
+        @UniqueConstraint(name = "uq_user_photo_match", columnNames = {"user_id", "event_id", "photo_key"})
+})
+public class UserPhotoMatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "event_id", nullable = false)
+    private UUID eventId;
+
+    @Column(name = "photo_key", nullable = false, length = 1024)
+    private String photoKey;
+
+    @Column(name = "face_id", nullable = false, length = 255)
+    private String faceId;
+
+    @Column(name = "similarity", nullable = false)
+    private float similarity;
+
+    @Column(name = "confidence")
+    private Float confidence;
+
+    @Column(name = "bbox_left")
+    private Float boxLeft;
+
+    @Column(name = "bbox_top")
+    private Float boxTop;
+
+    @Column(name = "bbox_width")
+    private Float boxWidth;
+
+    @Column(name = "bbox_height")
+    private Float boxHeight;
+
+    @Column(name = "matched_at", nullable = false)
+    private Instant matchedAt;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public UUID getEventId() {
+        return eventId;
+    }
+
+    public String getPhotoKey() {
+        return photoKey;
+    }
+
+    public String getFaceId() {
+        return faceId;
+    }
+
+    public float getSimilarity() {
+        return similarity;
+    }
+
+    public Float getConfidence() {
+        return confidence;
+    }
+
+    public Float getBoxLeft() {
+        return boxLeft;
+    }
+
+    public Float getBoxTop() {
+        return boxTop;
+    }
+
+    public Float getBoxWidth() {
+        return boxWidth;
+    }
+
+    public Float getBoxHeight() {
+        return boxHeight;
+    }
+
+    public Instant getMatchedAt() {
+        return matchedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof UserPhotoMatch that)) return false;
+        return id != null && Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+}
@@ -0,0 +1,49 @@
+package com.racephotos.auth.user;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface UserPhotoMatchRepository extends JpaRepository<UserPhotoMatch, UUID> {
+
+    List<UserPhotoMatch> findByUserIdAndEventIdOrderBySimilarityDesc(UUID userId, UUID eventId);
+
+    /**
+     * Inserts the match, or replaces the stored one for the same user, event and photo if this one is more similar.
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into user_photo_matches (id, user_id, event_id, photo_key, face_id, similarity, confidence,
+                                            bbox_left, bbox_top, bbox_width, bbox_height, matched_at)
+            values (gen_random_uuid(), :userId, :eventId, :photoKey, :faceId, :similarity, :confidence,
+                    :left, :top, :width, :height, now())
+            on conflict (user_id, event_id, photo_key) do update
+            set face_id = excluded.face_id, similarity = excluded.similarity, confidence = excluded.confidence,
+                bbox_left = excluded.bbox_left, bbox_top = excluded.bbox_top,
+                bbox_width = excluded.bbox_width, bbox_height = excluded.bbox_height
+            where excluded.similarity > user_photo_matches.similarity
+            """)
+    int upsert(
+            @Param("userId") UUID userId,
+            @Param("eventId") UUID eventId,
+            @Param("photoKey") String photoKey,
+            @Param("faceId") String faceId,
+            @Param("similarity") float similarity,
+            @Param("confidence") Float confidence,
+            @Param("left") Float left,
+            @Param("top") Float top,
+            @Param("width") Float width,
+            @Param("height") Float height
+    );
+
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = "delete from user_photo_matches where user_id = :userId")
+    int deleteByUserId(@Param("userId") UUID userId);
+}
@@ -1,10 +1,19 @@
 package com.racephotos.auth.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserSelfieRepository extends JpaRepository<UserSelfie, UUID> {
     Optional<UserSelfie> findByUserId(UUID userId);
+
+    List<UserSelfie> findByFaceIdIn(Collection<String> faceIds);
+
+    @Query("select s.user.id from UserSelfie s where s.user.id in :userIds")
+    List<UUID> findUserIdsWithSelfie(@Param("userIds") Collection<UUID> userIds);
 }
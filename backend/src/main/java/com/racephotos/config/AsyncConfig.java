@@ -1,9 +1,10 @@
 package com.racephotos.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
 
@@ -11,14 +12,57 @@ import java.util.concurrent.Executor;
 @EnableAsync
 public class AsyncConfig {
 
+    /**
+     * Indexing job drivers spend their time waiting on Rekognition turns, so each one gets its own virtual thread;
+     * how capacity is shared between events is decided by the indexing fair scheduler, not by this pool.
+     */
     @Bean(name = "faceIndexingExecutor")
-    public Executor faceIndexingExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(4);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("face-index-");
-        executor.initialize();
+    public Executor faceIndexingExecutor(
+            @Value("${app.indexing.max-concurrent-jobs:64}") int maxConcurrentJobs
+    ) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("face-index-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(Math.max(1, maxConcurrentJobs));
+        return executor;
+    }
+
+    /**
+     * Micro-batches of the continuous indexing queue. The limit bounds how many batches are in flight at once; when it
+     * is reached the queue's drainer waits, and new assets pile up in the queue instead.
+     */
+    @Bean(name = "continuousIndexingExecutor")
+    public Executor continuousIndexingExecutor(
+            @Value("${app.indexing.continuous.max-concurrent-batches:8}") int maxConcurrentBatches
+    ) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("continuous-index-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(Math.max(1, maxConcurrentBatches));
+        return executor;
+    }
+
+    /**
+     * Per-event searches of a multi-event selfie search; each one blocks on Rekognition and the database.
+     */
+    @Bean(name = "searchFanOutExecutor")
+    public Executor searchFanOutExecutor(
+            @Value("${app.search.fan-out.max-concurrency:256}") int maxConcurrency
+    ) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("search-fan-out-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(Math.max(1, maxConcurrency));
+        return executor;
+    }
+
+    /**
+     * Drives streamed face searches while the request thread is released.
+     */
+    @Bean(name = "faceSearchStreamExecutor")
+    public Executor faceSearchStreamExecutor(
+            @Value("${app.search.stream.max-concurrency:256}") int maxConcurrency
+    ) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("face-search-stream-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(Math.max(1, maxConcurrency));
         return executor;
     }
 }
@@ -0,0 +1,35 @@
+package com.racephotos.config;
+
+import io.awspring.cloud.sqs.config.SqsMessageListenerContainerFactory;
+import io.awspring.cloud.sqs.listener.acknowledgement.handler.AcknowledgementMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+
+import java.time.Duration;
+
+@Configuration
+public class SqsConfig {
+
+    public static final String PHOTO_UPLOAD_LISTENER_FACTORY = "photoUploadListenerContainerFactory";
+
+    @Bean(name = PHOTO_UPLOAD_LISTENER_FACTORY)
+    public SqsMessageListenerContainerFactory<Object> photoUploadListenerContainerFactory(
+            SqsAsyncClient sqsAsyncClient,
+            @Value("${aws.sqs.max-messages-per-poll:10}") int maxMessagesPerPoll,
+            @Value("${aws.sqs.max-concurrent-messages:40}") int maxConcurrentMessages,
+            @Value("${aws.sqs.poll-timeout-seconds:10}") long pollTimeoutSeconds
+    ) {
+        int perPoll = Math.max(1, maxMessagesPerPoll);
+        int concurrent = Math.max(perPoll, maxConcurrentMessages);
+        return SqsMessageListenerContainerFactory.builder()
+                .sqsAsyncClient(sqsAsyncClient)
+                .configure(options -> options
+                        .acknowledgementMode(AcknowledgementMode.MANUAL)
+                        .maxMessagesPerPoll(perPoll)
+                        .maxConcurrentMessages(concurrent)
+                        .pollTimeout(Duration.ofSeconds(Math.min(20L, Math.max(1L, pollTimeoutSeconds)))))
+                .build();
+    }
+}
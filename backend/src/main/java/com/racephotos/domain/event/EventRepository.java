@@ -1,11 +1,17 @@
 package com.racephotos.domain.event;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface EventRepository extends JpaRepository<Event, UUID> {
     Optional<Event> findBySlug(String slug);
     boolean existsBySlug(String slug);
+    List<Event> findByStatus(EventStatus status);
+
+    @Query("select distinct e from Event e left join fetch e.photographers")
+    List<Event> findAllWithPhotographers();
 }
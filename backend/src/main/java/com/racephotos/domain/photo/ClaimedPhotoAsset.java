@@ -0,0 +1,5 @@
+package com.racephotos.domain.photo;
+
+import java.util.UUID;
+
+public record ClaimedPhotoAsset(UUID id, UUID eventId, String objectKey, int previousAttempts) { }
@@ -0,0 +1,14 @@
+package com.racephotos.domain.photo;
+
+import java.util.UUID;
+
+public record ClusteredFace(
+        UUID clusterId,
+        String faceId,
+        String photoKey,
+        Float confidence,
+        Float boxLeft,
+        Float boxTop,
+        Float boxWidth,
+        Float boxHeight
+) { }
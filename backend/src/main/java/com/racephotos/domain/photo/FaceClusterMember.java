@@ -0,0 +1,106 @@
+package com.racephotos.domain.photo;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Membership of an indexed face in a person cluster of its event. Rows are replaced per event by
+ * {@link FaceClusterRepository#replaceClusters}; faces that did not cluster with any other face have no row.
+ */
+@Entity
+@Table(name = "face_cluster_members",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uq_face_cluster_member", columnNames = {"event_id", "face_id"})
+        },
+        indexes = {
+                @Index(name = "idx_face_cluster_member_cluster", columnList = "event_id, cluster_id")
+        })
+public class FaceClusterMember {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "event_id", nullable = false)
+    private UUID eventId;
+
+    @Column(name = "cluster_id", nullable = false)
+    private UUID clusterId;
+
+    @Column(name = "face_id", nullable = false, length = 255)
+    private String faceId;
+
+    @Column(name = "photo_key", nullable = false, length = 1024)
+    private String photoKey;
+
+    @Column(name = "confidence")
+    private Float confidence;
+
+    @Column(name = "bbox_left")
+    private Float boxLeft;
+
+    @Column(name = "bbox_top")
+    private Float boxTop;
+
+    @Column(name = "bbox_width")
+    private Float boxWidth;
+
+    @Column(name = "bbox_height")
+    private Float boxHeight;
+
+    @Column(name = "clustered_at", nullable = false)
+    private Instant clusteredAt;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getEventId() {
+        return eventId;
+    }
+
+    public UUID getClusterId() {
+        return clusterId;
+    }
+
+    public String getFaceId() {
+        return faceId;
+    }
+
+    public String getPhotoKey() {
+        return photoKey;
+    }
+
+    public Float getConfidence() {
+        return confidence;
+    }
+
+    public Float getBoxLeft() {
+        return boxLeft;
+    }
+
+    public Float getBoxTop() {
+        return boxTop;
+    }
+
+    public Float getBoxWidth() {
+        return boxWidth;
+    }
+
+    public Float getBoxHeight() {
+        return boxHeight;
+    }
+
+    public Instant getClusteredAt() {
+        return clusteredAt;
+    }
+}
@@ -0,0 +1,89 @@
+package com.racephotos.domain.photo;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+@Repository
+public class FaceClusterRepository {
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private static final String DELETE_EVENT_SQL = "delete from face_cluster_members where event_id = ?";
+    private static final String INSERT_SQL = """
+            insert into face_cluster_members (id, event_id, cluster_id, face_id, photo_key, confidence,
+                                              bbox_left, bbox_top, bbox_width, bbox_height, clustered_at)
+            values (gen_random_uuid(), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String SELECT_CLUSTER_MATES_SQL = """
+            select cluster_id, face_id, photo_key, confidence, bbox_left, bbox_top, bbox_width, bbox_height
+            from face_cluster_members
+            where event_id = ? and cluster_id in (
+                select cluster_id from face_cluster_members where event_id = ? and face_id = any(?)
+            )
+            """;
+
+    private static final RowMapper<ClusteredFace> ROW_MAPPER = (rs, rowNum) -> new ClusteredFace(
+            rs.getObject(1, UUID.class),
+            rs.getString(2),
+            rs.getString(3),
+            rs.getObject(4, Float.class),
+            rs.getObject(5, Float.class),
+            rs.getObject(6, Float.class),
+            rs.getObject(7, Float.class),
+            rs.getObject(8, Float.class)
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FaceClusterRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate, "jdbcTemplate");
+    }
+
+    /**
+     * Replaces all cluster memberships of the event with {@code faces} in one transaction, so searches see either the
+     * previous or the new clustering.
+     */
+    @Transactional
+    public void replaceClusters(UUID eventId, List<ClusteredFace> faces) {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        jdbcTemplate.update(DELETE_EVENT_SQL, eventId);
+        jdbcTemplate.batchUpdate(INSERT_SQL, faces, INSERT_BATCH_SIZE, (ps, face) -> {
+            ps.setObject(1, eventId);
+            ps.setObject(2, face.clusterId());
+            ps.setString(3, face.faceId());
+            ps.setString(4, face.photoKey());
+            ps.setObject(5, face.confidence());
+            ps.setObject(6, face.boxLeft());
+            ps.setObject(7, face.boxTop());
+            ps.setObject(8, face.boxWidth());
+            ps.setObject(9, face.boxHeight());
+            ps.setObject(10, now);
+        });
+    }
+
+    /**
+     * Returns every member of the clusters that contain any of {@code faceIds}, including those faces themselves.
+     */
+    public List<ClusteredFace> findClusterMates(UUID eventId, Collection<String> faceIds) {
+        if (faceIds == null || faceIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_CLUSTER_MATES_SQL);
+            ps.setObject(1, eventId);
+            ps.setObject(2, eventId);
+            ps.setArray(3, con.createArrayOf("text", faceIds.toArray()));
+            return ps;
+        }, ROW_MAPPER);
+    }
+}
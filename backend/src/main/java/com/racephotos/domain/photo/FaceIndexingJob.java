@@ -0,0 +1,185 @@
+package com.racephotos.domain.photo;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "face_indexing_jobs", indexes = {
+        @Index(name = "idx_face_indexing_job_event_status", columnList = "event_id, status")
+})
+public class FaceIndexingJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "event_id", nullable = false)
+    private UUID eventId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private FaceIndexingJobStatus status = FaceIndexingJobStatus.RUNNING;
+
+    @Column(name = "scheduled_images", nullable = false)
+    private int scheduledImages;
+
+    @Column(name = "indexed_images", nullable = false)
+    private int indexedImages;
+
+    @Column(name = "failed_images", nullable = false)
+    private int failedImages;
+
+    @Column(name = "total_faces", nullable = false)
+    private int totalFaces;
+
+    @Column(name = "last_cursor")
+    private UUID lastCursor;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @Column(name = "heartbeat_at")
+    private Instant heartbeatAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    public FaceIndexingJob() {
+    }
+
+    @PrePersist
+    public void prePersist() {
+        Instant now = Instant.now();
+        this.createdAt = now;
+        this.updatedAt = now;
+        if (this.startedAt == null) {
+            this.startedAt = now;
+        }
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = Instant.now();
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(UUID eventId) {
+        this.eventId = eventId;
+    }
+
+    public FaceIndexingJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(FaceIndexingJobStatus status) {
+        this.status = status;
+    }
+
+    public int getScheduledImages() {
+        return scheduledImages;
+    }
+
+    public void setScheduledImages(int scheduledImages) {
+        this.scheduledImages = scheduledImages;
+    }
+
+    public int getIndexedImages() {
+        return indexedImages;
+    }
+
+    public void setIndexedImages(int indexedImages) {
+        this.indexedImages = indexedImages;
+    }
+
+    public int getFailedImages() {
+        return failedImages;
+    }
+
+    public void setFailedImages(int failedImages) {
+        this.failedImages = failedImages;
+    }
+
+    public int getTotalFaces() {
+        return totalFaces;
+    }
+
+    public void setTotalFaces(int totalFaces) {
+        this.totalFaces = totalFaces;
+    }
+
+    public UUID getLastCursor() {
+        return lastCursor;
+    }
+
+    public void setLastCursor(UUID lastCursor) {
+        this.lastCursor = lastCursor;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public Instant getHeartbeatAt() {
+        return heartbeatAt;
+    }
+
+    public void setHeartbeatAt(Instant heartbeatAt) {
+        this.heartbeatAt = heartbeatAt;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
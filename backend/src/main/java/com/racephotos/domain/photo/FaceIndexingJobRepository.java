@@ -0,0 +1,104 @@
+package com.racephotos.domain.photo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface FaceIndexingJobRepository extends JpaRepository<FaceIndexingJob, UUID> {
+    Optional<FaceIndexingJob> findFirstByEventIdAndStatusOrderByStartedAtDesc(UUID eventId, FaceIndexingJobStatus status);
+    List<FaceIndexingJob> findByStatus(FaceIndexingJobStatus status);
+    List<FaceIndexingJob> findTop20ByEventIdOrderByStartedAtDesc(UUID eventId);
+    Optional<FaceIndexingJob> findByIdAndEventId(UUID id, UUID eventId);
+
+    @Query("""
+            select j from FaceIndexingJob j
+            where j.status = com.racephotos.domain.photo.FaceIndexingJobStatus.RUNNING
+              and coalesce(j.heartbeatAt, j.startedAt) < :cutoff
+            """)
+    List<FaceIndexingJob> findRunningWithHeartbeatBefore(@Param("cutoff") Instant cutoff);
+
+    /**
+     * Fails all but the newest RUNNING job of every event, so that {@link #createSingleRunningJobIndex()} can be built
+     * over rows written before the index existed.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            update face_indexing_jobs j
+            set status = 'FAILED', last_error = 'Superseded by another running job for the event',
+                finished_at = :now, updated_at = :now
+            where j.status = 'RUNNING' and exists (
+                select 1 from face_indexing_jobs o
+                where o.event_id = j.event_id and o.status = 'RUNNING'
+                  and (o.started_at > j.started_at or (o.started_at = j.started_at and o.id > j.id))
+            )
+            """, nativeQuery = true)
+    int failDuplicateRunningJobs(@Param("now") Instant now);
+
+    /**
+     * At most one RUNNING job per event, across all nodes. JPA cannot declare partial indexes, so this is created at
+     * startup.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            create unique index if not exists uq_face_indexing_job_running
+            on face_indexing_jobs (event_id) where status = 'RUNNING'
+            """, nativeQuery = true)
+    void createSingleRunningJobIndex();
+
+    /**
+     * Makes a RUNNING job look stale right away, so the next sweep on any node takes it over.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Transactional
+    @Query("""
+            update FaceIndexingJob j set j.heartbeatAt = :heartbeat
+            where j.id = :id and j.status = com.racephotos.domain.photo.FaceIndexingJobStatus.RUNNING
+            """)
+    int abandon(@Param("id") UUID id, @Param("heartbeat") Instant heartbeat);
+
+    /**
+     * Adds a progress delta reported by one worker, so several nodes working on the same job do not overwrite each other.
+     * Finished jobs are left untouched.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Transactional
+    @Query("""
+            update FaceIndexingJob j
+            set j.scheduledImages = j.scheduledImages + :scheduled, j.indexedImages = j.indexedImages + :indexed,
+                j.failedImages = j.failedImages + :failed, j.totalFaces = j.totalFaces + :faces,
+                j.lastCursor = coalesce(:cursor, j.lastCursor), j.heartbeatAt = :now, j.updatedAt = :now
+            where j.id = :id and j.status = com.racephotos.domain.photo.FaceIndexingJobStatus.RUNNING
+            """)
+    int addProgress(
+            @Param("id") UUID id,
+            @Param("scheduled") int scheduled,
+            @Param("indexed") int indexed,
+            @Param("failed") int failed,
+            @Param("faces") int faces,
+            @Param("cursor") UUID cursor,
+            @Param("now") Instant now
+    );
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Transactional
+    @Query("""
+            update FaceIndexingJob j
+            set j.status = :status, j.lastError = coalesce(:error, j.lastError), j.finishedAt = :now, j.updatedAt = :now
+            where j.id = :id and j.status = com.racephotos.domain.photo.FaceIndexingJobStatus.RUNNING
+            """)
+    int finish(
+            @Param("id") UUID id,
+            @Param("status") FaceIndexingJobStatus status,
+            @Param("error") String error,
+            @Param("now") Instant now
+    );
+}
@@ -0,0 +1,7 @@
+package com.racephotos.domain.photo;
+
+public enum FaceIndexingJobStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -8,6 +8,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -22,6 +23,8 @@ import java.util.UUID;
 @Entity
 @Table(name = "photo_assets", uniqueConstraints = {
         @UniqueConstraint(name = "uq_photo_asset_s3", columnNames = {"s3_bucket", "s3_key"})
+}, indexes = {
+        @Index(name = "idx_photo_asset_event_id", columnList = "event_id, id")
 })
 public class PhotoAsset {
 
@@ -55,6 +58,21 @@ public class PhotoAsset {
     @Column(name = "index_status", length = 30)
     private String indexStatus;
 
+    @Column(name = "index_attempts")
+    private Integer indexAttempts;
+
+    @Column(name = "next_index_attempt_at")
+    private Instant nextIndexAttemptAt;
+
+    @Column(name = "last_index_error", length = 500)
+    private String lastIndexError;
+
+    @Column(name = "lease_owner", length = 100)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -148,6 +166,46 @@ public class PhotoAsset {
         this.indexStatus = indexStatus;
     }
 
+    public Integer getIndexAttempts() {
+        return indexAttempts;
+    }
+
+    public void setIndexAttempts(Integer indexAttempts) {
+        this.indexAttempts = indexAttempts;
+    }
+
+    public Instant getNextIndexAttemptAt() {
+        return nextIndexAttemptAt;
+    }
+
+    public void setNextIndexAttemptAt(Instant nextIndexAttemptAt) {
+        this.nextIndexAttemptAt = nextIndexAttemptAt;
+    }
+
+    public String getLastIndexError() {
+        return lastIndexError;
+    }
+
+    public void setLastIndexError(String lastIndexError) {
+        this.lastIndexError = lastIndexError;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public Instant getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(Instant leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
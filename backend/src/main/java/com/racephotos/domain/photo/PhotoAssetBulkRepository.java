@@ -0,0 +1,337 @@
+package com.racephotos.domain.photo;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+@Repository
+public class PhotoAssetBulkRepository {
+
+    private static final String SELECT_EXISTING_KEYS_SQL =
+            "select s3_key from photo_assets where s3_bucket = ? and s3_key = any(?)";
+    private static final String SELECT_EXISTING_IDS_SQL =
+            "select id from photo_assets where id = any(?)";
+    private static final String INSERT_IGNORING_CONFLICTS_SQL = """
+            insert into photo_assets (id, s3_bucket, s3_key, event_id, photographer_id, captured_at, uploaded_at, created_at, updated_at)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            on conflict (s3_bucket, s3_key) do nothing
+            """;
+    private static final String UPDATE_INDEX_STATUS_SQL = """
+            update photo_assets
+            set index_status = ?, indexed_at = coalesce(?, indexed_at), updated_at = ?,
+                index_attempts = coalesce(index_attempts, 0) + 1, next_index_attempt_at = ?, last_index_error = ?,
+                lease_owner = null, lease_expires_at = null
+            where id = ? and lease_owner = ?
+            """;
+    private static final String CLAIM_UNINDEXED_SQL = """
+            update photo_assets
+            set lease_owner = ?, lease_expires_at = ?
+            where id in (
+                select id from photo_assets
+                where event_id = ? and index_status is null
+                  and (lease_expires_at is null or lease_expires_at < ?)
+                order by id
+                limit ?
+                for update skip locked
+            )
+            returning id, event_id, s3_key, coalesce(index_attempts, 0)
+            """;
+    private static final String CLAIM_BY_IDS_SQL = """
+            update photo_assets
+            set lease_owner = ?, lease_expires_at = ?
+            where id in (
+                select id from photo_assets
+                where id = any(?) and event_id = ? and index_status is null
+                  and (lease_expires_at is null or lease_expires_at < ?)
+                for update skip locked
+            )
+            returning id, event_id, s3_key, coalesce(index_attempts, 0)
+            """;
+    private static final String CLAIM_DUE_RETRIES_SQL = """
+            update photo_assets
+            set lease_owner = ?, lease_expires_at = ?
+            where id in (
+                select id from photo_assets
+                where index_status = 'RETRY' and next_index_attempt_at <= ?
+                  and (lease_expires_at is null or lease_expires_at < ?)
+                order by next_index_attempt_at
+                limit ?
+                for update skip locked
+            )
+            returning id, event_id, s3_key, coalesce(index_attempts, 0)
+            """;
+    private static final String RENEW_LEASES_SQL = """
+            update photo_assets
+            set lease_expires_at = ?
+            where id = any(?) and lease_owner = ?
+            """;
+    private static final String COUNT_UNINDEXED_ELSEWHERE_SQL = """
+            select count(*) from photo_assets
+            where event_id = ? and index_status is null
+              and (lease_owner is distinct from ? or lease_expires_at is null or lease_expires_at < ?)
+            """;
+    private static final String FORCE_RETRY_SQL = """
+            update photo_assets
+            set index_status = 'RETRY', next_index_attempt_at = ?, index_attempts = 0, updated_at = ?
+            where event_id = ? and s3_key = any(?) and index_status in ('FAILED', 'RETRY')
+            """;
+    private static final String SELECT_EVENTS_WITH_STRANDED_ASSETS_SQL = """
+            select distinct a.event_id from photo_assets a
+            where a.index_status is null and a.created_at < ?
+              and (a.lease_expires_at is null or a.lease_expires_at < ?)
+              and not exists (
+                  select 1 from face_indexing_jobs j where j.event_id = a.event_id and j.status = 'RUNNING'
+              )
+            """;
+
+    private static final RowMapper<ClaimedPhotoAsset> CLAIMED_ROW_MAPPER = (rs, rowNum) -> new ClaimedPhotoAsset(
+            rs.getObject(1, UUID.class),
+            rs.getObject(2, UUID.class),
+            rs.getString(3),
+            rs.getInt(4)
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PhotoAssetBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate, "jdbcTemplate");
+    }
+
+    public Set<String> findExistingObjectKeys(String bucket, Collection<String> objectKeys) {
+        if (objectKeys == null || objectKeys.isEmpty()) {
+            return Set.of();
+        }
+        List<String> existing = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_EXISTING_KEYS_SQL);
+            ps.setString(1, bucket);
+            ps.setArray(2, con.createArrayOf("text", objectKeys.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getString(1));
+        return new HashSet<>(existing);
+    }
+
+    /**
+     * Inserts the given assets in one JDBC batch, silently skipping rows whose bucket/key already exists.
+     * Assets must carry a pre-assigned id; the ids of the rows that were actually inserted are returned.
+     */
+    public List<UUID> insertIgnoringConflicts(List<PhotoAsset> assets) {
+        if (assets == null || assets.isEmpty()) {
+            return List.of();
+        }
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_IGNORING_CONFLICTS_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PhotoAsset asset = assets.get(i);
+                ps.setObject(1, asset.getId());
+                ps.setString(2, asset.getBucket());
+                ps.setString(3, asset.getObjectKey());
+                ps.setObject(4, asset.getEvent().getId());
+                ps.setObject(5, asset.getPhotographer().getId());
+                ps.setObject(6, toOffsetDateTime(asset.getCapturedAt()));
+                ps.setObject(7, toOffsetDateTime(asset.getUploadedAt()));
+                ps.setObject(8, now);
+                ps.setObject(9, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return assets.size();
+            }
+        });
+
+        boolean countsKnown = true;
+        List<UUID> inserted = new ArrayList<>(assets.size());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                countsKnown = false;
+                break;
+            }
+            if (counts[i] > 0) {
+                inserted.add(assets.get(i).getId());
+            }
+        }
+        if (countsKnown) {
+            return inserted;
+        }
+        // Driver rewrote the batch and could not report per-row counts; ask the database instead.
+        List<UUID> candidateIds = assets.stream().map(PhotoAsset::getId).toList();
+        return findExistingIds(candidateIds);
+    }
+
+    /**
+     * Leases up to {@code limit} unindexed assets of the event to {@code owner}. Rows locked by a concurrent claim are
+     * skipped and rows whose lease has expired are reclaimed, so concurrent workers always receive disjoint batches.
+     * Writing an index status releases the lease.
+     */
+    public List<ClaimedPhotoAsset> claimUnindexed(UUID eventId, String owner, Duration leaseDuration, int limit) {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(CLAIM_UNINDEXED_SQL);
+            ps.setString(1, owner);
+            ps.setObject(2, now.plus(leaseDuration));
+            ps.setObject(3, eventId);
+            ps.setObject(4, now);
+            ps.setInt(5, limit);
+            return ps;
+        }, CLAIMED_ROW_MAPPER);
+    }
+
+    /**
+     * Leases the given assets of the event if they are still unindexed and not leased by anyone else.
+     */
+    public List<ClaimedPhotoAsset> claimByIds(UUID eventId, Collection<UUID> ids, String owner, Duration leaseDuration) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(CLAIM_BY_IDS_SQL);
+            ps.setString(1, owner);
+            ps.setObject(2, now.plus(leaseDuration));
+            ps.setArray(3, con.createArrayOf("uuid", ids.toArray()));
+            ps.setObject(4, eventId);
+            ps.setObject(5, now);
+            return ps;
+        }, CLAIMED_ROW_MAPPER);
+    }
+
+    /**
+     * Leases assets whose retry is due, oldest first, across all events.
+     */
+    public List<ClaimedPhotoAsset> claimDueRetries(String owner, Duration leaseDuration, int limit) {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(CLAIM_DUE_RETRIES_SQL);
+            ps.setString(1, owner);
+            ps.setObject(2, now.plus(leaseDuration));
+            ps.setObject(3, now);
+            ps.setObject(4, now);
+            ps.setInt(5, limit);
+            return ps;
+        }, CLAIMED_ROW_MAPPER);
+    }
+
+    /**
+     * Extends the leases {@code owner} still holds on the given assets. Leases that were released by a status write or
+     * taken over by another worker are left alone.
+     */
+    public int renewLeases(Collection<UUID> ids, String owner, Duration leaseDuration) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(RENEW_LEASES_SQL);
+            ps.setObject(1, now.plus(leaseDuration));
+            ps.setArray(2, con.createArrayOf("uuid", ids.toArray()));
+            ps.setString(3, owner);
+            return ps;
+        });
+    }
+
+    /**
+     * Counts unindexed assets of the event that are not currently leased by {@code owner}: unleased ones, expired
+     * leases, and live leases of other workers.
+     */
+    public long countUnindexedElsewhere(UUID eventId, String owner) {
+        Long count = jdbcTemplate.queryForObject(COUNT_UNINDEXED_ELSEWHERE_SQL, Long.class,
+                eventId, owner, OffsetDateTime.now(ZoneOffset.UTC));
+        return count == null ? 0L : count;
+    }
+
+    /**
+     * Makes FAILED or RETRY assets of the event with the given keys due for retry immediately, with a fresh attempt
+     * budget. Returns the number of assets rescheduled.
+     */
+    public int forceRetry(UUID eventId, Collection<String> objectKeys) {
+        if (objectKeys == null || objectKeys.isEmpty()) {
+            return 0;
+        }
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(FORCE_RETRY_SQL);
+            ps.setObject(1, now);
+            ps.setObject(2, now);
+            ps.setObject(3, eventId);
+            ps.setArray(4, con.createArrayOf("text", objectKeys.toArray()));
+            return ps;
+        });
+    }
+
+    /**
+     * Returns events that still have unleased, unindexed assets created before {@code createdBefore} and no running
+     * indexing job.
+     */
+    public List<UUID> findEventsWithStrandedAssets(Instant createdBefore) {
+        return jdbcTemplate.query(SELECT_EVENTS_WITH_STRANDED_ASSETS_SQL,
+                (rs, rowNum) -> rs.getObject(1, UUID.class),
+                toOffsetDateTime(createdBefore),
+                OffsetDateTime.now(ZoneOffset.UTC));
+    }
+
+    /**
+     * Writes index results for assets still leased by the owner recorded on each update. Results from a node whose
+     * lease expired and was taken over match no row and are dropped; returns the number of rows written.
+     */
+    public int updateIndexStatuses(List<PhotoAssetStatusUpdate> updates) {
+        if (updates == null || updates.isEmpty()) {
+            return 0;
+        }
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_INDEX_STATUS_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PhotoAssetStatusUpdate update = updates.get(i);
+                ps.setString(1, update.indexStatus());
+                ps.setObject(2, toOffsetDateTime(update.indexedAt()));
+                ps.setObject(3, now);
+                ps.setObject(4, toOffsetDateTime(update.nextAttemptAt()));
+                ps.setString(5, update.error());
+                ps.setObject(6, update.assetId());
+                ps.setString(7, update.leaseOwner());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return updates.size();
+            }
+        });
+        int written = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                written += count;
+            }
+        }
+        return written;
+    }
+
+    private List<UUID> findExistingIds(List<UUID> ids) {
+        Set<UUID> existing = new HashSet<>(jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_EXISTING_IDS_SQL);
+            ps.setArray(1, con.createArrayOf("uuid", ids.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getObject(1, UUID.class)));
+        return ids.stream().filter(existing::contains).toList();
+    }
+
+    private static OffsetDateTime toOffsetDateTime(Instant instant) {
+        return instant == null ? null : instant.atOffset(ZoneOffset.UTC);
+    }
+}
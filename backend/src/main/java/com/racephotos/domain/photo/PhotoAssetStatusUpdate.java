@@ -0,0 +1,13 @@
+package com.racephotos.domain.photo;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record PhotoAssetStatusUpdate(
+        UUID assetId,
+        String leaseOwner,
+        String indexStatus,
+        Instant indexedAt,
+        Instant nextAttemptAt,
+        String error
+) { }
@@ -17,8 +17,10 @@ import com.racephotos.service.event.dto.CreateEventCommand;
 import com.racephotos.service.event.dto.UpdateEventCommand;
 import com.racephotos.service.photographer.dto.PhotographerIdentifierData;
 import com.racephotos.service.common.dto.PricingProfileData;
+import com.racephotos.service.ingestion.UploadRoutingChangedEvent;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -42,17 +44,20 @@ public class EventAdminService {
     private final EventOrganizerRepository eventOrganizerRepository;
     private final PhotographerRepository photographerRepository;
     private final PhotoAssetRepository photoAssetRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public EventAdminService(
             EventRepository eventRepository,
             EventOrganizerRepository eventOrganizerRepository,
             PhotographerRepository photographerRepository,
-            PhotoAssetRepository photoAssetRepository
+            PhotoAssetRepository photoAssetRepository,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.eventRepository = Objects.requireNonNull(eventRepository, "eventRepository");
         this.eventOrganizerRepository = Objects.requireNonNull(eventOrganizerRepository, "eventOrganizerRepository");
         this.photographerRepository = Objects.requireNonNull(photographerRepository, "photographerRepository");
         this.photoAssetRepository = Objects.requireNonNull(photoAssetRepository, "photoAssetRepository");
+        this.eventPublisher = Objects.requireNonNull(eventPublisher, "eventPublisher");
     }
 
     @Transactional
@@ -101,6 +106,8 @@ public class EventAdminService {
         try {
             Event saved = eventRepository.save(event);
             log.info("Created event {} with slug '{}'", saved.getId(), saved.getSlug());
+            eventPublisher.publishEvent(new UploadRoutingChangedEvent("event created " + saved.getId()));
+            eventPublisher.publishEvent(new EventStatusChangedEvent(saved.getId(), null, saved.getStatus()));
             return saved;
         } catch (DataIntegrityViolationException e) {
             log.warn("Failed to create event with slug '{}' due to constraint violation", slug);
@@ -145,6 +152,7 @@ public class EventAdminService {
         validateEventTimes(command.startTime(), command.endTime());
 
         EventOrganizer organizer = resolveOrganizer(command.organizerId());
+        EventStatus previousStatus = event.getStatus();
 
         event.setSlug(slug);
         event.setName(normalize(command.name()));
@@ -173,6 +181,10 @@ public class EventAdminService {
         try {
             Event saved = eventRepository.save(event);
             log.info("Updated event {} with slug '{}'", saved.getId(), saved.getSlug());
+            eventPublisher.publishEvent(new UploadRoutingChangedEvent("event updated " + saved.getId()));
+            if (saved.getStatus() != previousStatus) {
+                eventPublisher.publishEvent(new EventStatusChangedEvent(saved.getId(), previousStatus, saved.getStatus()));
+            }
             return saved;
         } catch (DataIntegrityViolationException e) {
             log.warn("Failed to update event with slug '{}' due to constraint violation", slug);
@@ -196,6 +208,7 @@ public class EventAdminService {
         event.assignPhotographer(photographer);
         Event saved = eventRepository.save(event);
         log.info("Assigned photographer {} to event {}", photographer.getId(), saved.getId());
+        eventPublisher.publishEvent(new UploadRoutingChangedEvent("photographer assigned to event " + saved.getId()));
         return saved;
     }
 
@@ -261,6 +274,7 @@ public class EventAdminService {
         event.removePhotographer(photographer);
         eventRepository.save(event);
         log.info("Removed photographer {} from event {}", photographerId, eventId);
+        eventPublisher.publishEvent(new UploadRoutingChangedEvent("photographer removed from event " + eventId));
     }
 
     @Transactional(readOnly = true)
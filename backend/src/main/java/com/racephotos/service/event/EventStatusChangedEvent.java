@@ -0,0 +1,10 @@
+package com.racephotos.service.event;
+
+import com.racephotos.domain.event.EventStatus;
+
+import java.util.UUID;
+
+/**
+ * Published when an event is created or its status changes. {@code previousStatus} is {@code null} for new events.
+ */
+public record EventStatusChangedEvent(UUID eventId, EventStatus previousStatus, EventStatus status) { }
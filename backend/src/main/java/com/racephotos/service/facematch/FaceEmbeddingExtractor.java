@@ -0,0 +1,27 @@
+package com.racephotos.service.facematch;
+
+import software.amazon.awssdk.services.rekognition.model.BoundingBox;
+
+import java.util.List;
+
+/**
+ * Detects faces in a stored image and computes an L2-normalised embedding for each of them. Used by
+ * {@link LocalFaceMatchingEngine}; embeddings of the same person are expected to have a high cosine similarity.
+ */
+public interface FaceEmbeddingExtractor {
+
+    int dimension();
+
+    List<DetectedFace> detect(String bucket, String key);
+
+    record DetectedFace(float[] embedding, BoundingBox boundingBox, float confidence) {
+
+        float area() {
+            BoundingBox box = boundingBox;
+            if (box == null || box.width() == null || box.height() == null) {
+                return 0F;
+            }
+            return box.width() * box.height();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.racephotos.service.facematch;
+
+import software.amazon.awssdk.services.rekognition.model.BoundingBox;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Face detection and matching against per-collection face indexes. Each event owns one collection (see
+ * {@code Event#getVectorCollectionId}); selfies live in a collection of their own.
+ * <p>
+ * Implementations are selected with {@code app.face-matching.engine}: {@code rekognition} (default) or {@code local}.
+ * Callers are responsible for rate limiting; implementations should not block on their own quotas.
+ */
+public interface FaceMatchingEngine {
+
+    /**
+     * Creates the collection if it does not exist yet. Cheap to call repeatedly.
+     */
+    void ensureCollection(String collectionId);
+
+    /**
+     * Detects the faces in the image and adds them to the collection.
+     */
+    List<IndexedFace> indexFaces(String collectionId, String bucket, String key, String externalImageId);
+
+    /**
+     * Finds faces in the collection that match the largest face in the probe image, best match first.
+     *
+     * @param maxFaces   maximum number of matches, or {@code null} for the engine default
+     * @param threshold  minimum similarity in percent, or {@code null} for the engine default
+     */
+    List<FaceMatch> searchByImage(String collectionId, String bucket, String key, Integer maxFaces, Float threshold);
+
+    /**
+     * Finds faces in the collection that match a face already indexed in it, best match first. The face itself is
+     * not part of the result.
+     */
+    List<FaceMatch> searchByFaceId(String collectionId, String faceId, Integer maxFaces, Float threshold);
+
+    /**
+     * Like {@link #searchByImage}, but probes with every given face of the image rather than only the largest one.
+     * Returns the matches per probe face, keyed by the probe's face id; faces without matches may be absent. Each probe
+     * search runs through {@code gate}, so callers can rate limit the searches one by one.
+     */
+    Map<String, List<FaceMatch>> searchByFaces(
+            String collectionId,
+            String bucket,
+            String key,
+            List<IndexedFace> faces,
+            Integer maxFaces,
+            Float threshold,
+            ProbeGate gate
+    );
+
+    /**
+     * Returns the highest similarity in percent between the largest face of the source image and any face of the
+     * target image, or 0 when no face pair reaches {@code threshold}.
+     */
+    float compareFaces(String bucket, String sourceKey, String targetKey, float threshold);
+
+    void deleteFaces(String collectionId, Collection<String> faceIds);
+
+    @FunctionalInterface
+    interface ProbeGate {
+        List<FaceMatch> run(Supplier<List<FaceMatch>> probe);
+    }
+
+    record IndexedFace(String faceId, String imageId, BoundingBox boundingBox, Float confidence) { }
+
+    record FaceMatch(String faceId, float similarity, Float confidence) { }
+}
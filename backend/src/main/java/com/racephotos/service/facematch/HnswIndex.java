@@ -0,0 +1,205 @@
+package com.racephotos.service.facematch;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+/**
+ * Hierarchical navigable small world graph over L2-normalised vectors, scored by cosine similarity. Node ids are
+ * assigned densely in insertion order. Deletions are tombstones: deleted nodes keep routing searches but are never
+ * returned. Not thread-safe; callers serialise writes against reads.
+ */
+final class HnswIndex {
+
+    private static final Comparator<Scored> BEST_FIRST = Comparator.comparingDouble(Scored::score).reversed();
+    private static final Comparator<Scored> WORST_FIRST = Comparator.comparingDouble(Scored::score);
+
+    private final int maxConnections;
+    private final int maxConnectionsLayer0;
+    private final int efConstruction;
+    private final double levelNormalizer;
+    private final List<float[]> vectors = new ArrayList<>();
+    // links.get(node)[level][0] holds the neighbour count, followed by the neighbour ids.
+    private final List<int[][]> links = new ArrayList<>();
+    private final BitSet deleted = new BitSet();
+    private final SplittableRandom random = new SplittableRandom(42L);
+    private int entryPoint = -1;
+    private int topLevel = -1;
+
+    HnswIndex(int maxConnections, int efConstruction) {
+        this.maxConnections = Math.max(2, maxConnections);
+        this.maxConnectionsLayer0 = this.maxConnections * 2;
+        this.efConstruction = Math.max(this.maxConnections, efConstruction);
+        this.levelNormalizer = 1.0 / Math.log(this.maxConnections);
+    }
+
+    int size() {
+        return vectors.size();
+    }
+
+    int add(float[] vector) {
+        int id = vectors.size();
+        int level = randomLevel();
+        int[][] nodeLinks = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            nodeLinks[l] = new int[capacity(l) + 1];
+        }
+        vectors.add(vector);
+        links.add(nodeLinks);
+        if (entryPoint < 0) {
+            entryPoint = id;
+            topLevel = level;
+            return id;
+        }
+
+        int current = entryPoint;
+        for (int l = topLevel; l > level; l--) {
+            current = greedyClosest(vector, current, l);
+        }
+        for (int l = Math.min(level, topLevel); l >= 0; l--) {
+            List<Scored> candidates = searchLayer(vector, current, efConstruction, l);
+            int limit = Math.min(capacity(l), candidates.size());
+            for (int i = 0; i < limit; i++) {
+                int neighbour = candidates.get(i).id();
+                connect(id, neighbour, l);
+                connect(neighbour, id, l);
+            }
+            current = candidates.get(0).id();
+        }
+        if (level > topLevel) {
+            topLevel = level;
+            entryPoint = id;
+        }
+        return id;
+    }
+
+    void markDeleted(int id) {
+        deleted.set(id);
+    }
+
+    boolean isDeleted(int id) {
+        return deleted.get(id);
+    }
+
+    /**
+     * Returns up to {@code k} live nodes with similarity of at least {@code minScore}, best first.
+     */
+    List<Scored> search(float[] query, int k, int ef, float minScore) {
+        if (entryPoint < 0 || k <= 0) {
+            return List.of();
+        }
+        int current = entryPoint;
+        for (int l = topLevel; l > 0; l--) {
+            current = greedyClosest(query, current, l);
+        }
+        List<Scored> results = new ArrayList<>(k);
+        for (Scored scored : searchLayer(query, current, Math.max(ef, k), 0)) {
+            if (scored.score() < minScore || results.size() == k) {
+                break;
+            }
+            if (!deleted.get(scored.id())) {
+                results.add(scored);
+            }
+        }
+        return results;
+    }
+
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        float best = similarity(query, current);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] neighbours = links.get(current)[level];
+            for (int i = 1; i <= neighbours[0]; i++) {
+                float score = similarity(query, neighbours[i]);
+                if (score > best) {
+                    best = score;
+                    current = neighbours[i];
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    private List<Scored> searchLayer(float[] query, int start, int ef, int level) {
+        BitSet visited = new BitSet(vectors.size());
+        PriorityQueue<Scored> candidates = new PriorityQueue<>(BEST_FIRST);
+        PriorityQueue<Scored> results = new PriorityQueue<>(WORST_FIRST);
+        Scored first = new Scored(start, similarity(query, start));
+        visited.set(start);
+        candidates.add(first);
+        results.add(first);
+
+        while (!candidates.isEmpty()) {
+            Scored candidate = candidates.poll();
+            if (results.size() >= ef && candidate.score() < results.peek().score()) {
+                break;
+            }
+            int[] neighbours = links.get(candidate.id())[level];
+            for (int i = 1; i <= neighbours[0]; i++) {
+                int neighbour = neighbours[i];
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                float score = similarity(query, neighbour);
+                if (results.size() < ef || score > results.peek().score()) {
+                    Scored scored = new Scored(neighbour, score);
+                    candidates.add(scored);
+                    results.add(scored);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        List<Scored> sorted = new ArrayList<>(results);
+        sorted.sort(BEST_FIRST);
+        return sorted;
+    }
+
+    private void connect(int from, int to, int level) {
+        int[] neighbours = links.get(from)[level];
+        int count = neighbours[0];
+        if (count < neighbours.length - 1) {
+            neighbours[count + 1] = to;
+            neighbours[0] = count + 1;
+            return;
+        }
+        // Full: keep the closest neighbours of 'from', which may drop the new link.
+        float[] origin = vectors.get(from);
+        List<Scored> pool = new ArrayList<>(count + 1);
+        for (int i = 1; i <= count; i++) {
+            pool.add(new Scored(neighbours[i], similarity(origin, neighbours[i])));
+        }
+        pool.add(new Scored(to, similarity(origin, to)));
+        pool.sort(BEST_FIRST);
+        for (int i = 0; i < count; i++) {
+            neighbours[i + 1] = pool.get(i).id();
+        }
+    }
+
+    private int capacity(int level) {
+        return level == 0 ? maxConnectionsLayer0 : maxConnections;
+    }
+
+    private int randomLevel() {
+        return (int) Math.floor(-Math.log(1.0 - random.nextDouble()) * levelNormalizer);
+    }
+
+    private float similarity(float[] query, int node) {
+        float[] vector = vectors.get(node);
+        float sum = 0F;
+        for (int i = 0; i < vector.length; i++) {
+            sum += query[i] * vector[i];
+        }
+        return sum;
+    }
+
+    record Scored(int id, float score) { }
+}
@@ -0,0 +1,314 @@
+package com.racephotos.service.facematch;
+
+import com.racephotos.service.facematch.FaceEmbeddingExtractor.DetectedFace;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-process face matching: embeddings from a {@link FaceEmbeddingExtractor} are indexed in one HNSW graph per
+ * collection and persisted to a memory-mapped file per collection under {@code app.face-matching.local.directory}.
+ * The graph itself is rebuilt from the mapped embeddings when a collection is first opened.
+ */
+@Component
+@ConditionalOnProperty(name = "app.face-matching.engine", havingValue = "local")
+public class LocalFaceMatchingEngine implements FaceMatchingEngine {
+
+    private static final Logger log = LogManager.getLogger(LocalFaceMatchingEngine.class);
+    private static final Pattern COLLECTION_ID = Pattern.compile("[a-zA-Z0-9_.\\-]{1,255}");
+
+    private final FaceEmbeddingExtractor extractor;
+    private final Path directory;
+    private final int maxConnections;
+    private final int efConstruction;
+    private final int efSearch;
+    private final int defaultMaxFaces;
+    private final float defaultThreshold;
+    private final Map<String, LocalCollection> collections = new ConcurrentHashMap<>();
+
+    public LocalFaceMatchingEngine(
+            FaceEmbeddingExtractor extractor,
+            @Value("${app.face-matching.local.directory:${java.io.tmpdir}/race-photos-faces}") String directory,
+            @Value("${app.face-matching.local.hnsw.m:16}") int maxConnections,
+            @Value("${app.face-matching.local.hnsw.ef-construction:100}") int efConstruction,
+            @Value("${app.face-matching.local.hnsw.ef-search:64}") int efSearch,
+            @Value("${app.face-matching.local.default-max-faces:100}") int defaultMaxFaces,
+            @Value("${app.face-matching.local.default-threshold:80}") float defaultThreshold
+    ) {
+        this.extractor = Objects.requireNonNull(extractor, "extractor");
+        this.directory = Path.of(directory);
+        this.maxConnections = maxConnections;
+        this.efConstruction = efConstruction;
+        this.efSearch = Math.max(1, efSearch);
+        this.defaultMaxFaces = Math.max(1, defaultMaxFaces);
+        this.defaultThreshold = defaultThreshold;
+    }
+
+    @Override
+    public void ensureCollection(String collectionId) {
+        collection(collectionId);
+    }
+
+    @Override
+    public List<IndexedFace> indexFaces(String collectionId, String bucket, String key, String externalImageId) {
+        LocalCollection collection = collection(collectionId);
+        List<DetectedFace> detected = extractor.detect(bucket, key);
+        if (detected.isEmpty()) {
+            return List.of();
+        }
+        String imageId = UUID.randomUUID().toString();
+        List<IndexedFace> indexed = new ArrayList<>(detected.size());
+        collection.lock.writeLock().lock();
+        try {
+            for (DetectedFace face : detected) {
+                UUID faceId = UUID.randomUUID();
+                collection.add(faceId, face.confidence(), face.embedding());
+                indexed.add(new IndexedFace(faceId.toString(), imageId, face.boundingBox(), face.confidence()));
+            }
+        } finally {
+            collection.lock.writeLock().unlock();
+        }
+        return indexed;
+    }
+
+    @Override
+    public List<FaceMatch> searchByImage(String collectionId, String bucket, String key, Integer maxFaces, Float threshold) {
+        LocalCollection collection = collection(collectionId);
+        DetectedFace probe = largestFace(extractor.detect(bucket, key));
+        if (probe == null) {
+            return List.of();
+        }
+        int limit = maxFaces == null ? defaultMaxFaces : maxFaces;
+        float minSimilarity = threshold == null ? defaultThreshold : threshold;
+        return search(collection, probe.embedding(), limit, minSimilarity);
+    }
+
+    @Override
+    public List<FaceMatch> searchByFaceId(String collectionId, String faceId, Integer maxFaces, Float threshold) {
+        LocalCollection collection = collection(collectionId);
+        int limit = maxFaces == null ? defaultMaxFaces : maxFaces;
+        float minSimilarity = threshold == null ? defaultThreshold : threshold;
+        collection.lock.readLock().lock();
+        try {
+            Integer node = collection.node(faceId);
+            if (node == null) {
+                throw new IllegalArgumentException("Face " + faceId + " is not in collection " + collectionId);
+            }
+            // One extra hit, since the face finds itself.
+            List<HnswIndex.Scored> hits =
+                    collection.index.search(collection.store.embedding(node), limit + 1, efSearch, minSimilarity / 100F);
+            List<FaceMatch> matches = new ArrayList<>(hits.size());
+            for (HnswIndex.Scored hit : hits) {
+                if (hit.id() == node || matches.size() == limit) {
+                    continue;
+                }
+                matches.add(new FaceMatch(
+                        collection.store.faceId(hit.id()).toString(),
+                        toPercent(hit.score()),
+                        collection.store.confidence(hit.id())
+                ));
+            }
+            return matches;
+        } finally {
+            collection.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The faces are re-detected from the image; with a deterministic extractor they come back in the order they were
+     * indexed, which pairs them with the given faces.
+     */
+    @Override
+    public Map<String, List<FaceMatch>> searchByFaces(
+            String collectionId,
+            String bucket,
+            String key,
+            List<IndexedFace> faces,
+            Integer maxFaces,
+            Float threshold,
+            ProbeGate gate
+    ) {
+        LocalCollection collection = collection(collectionId);
+        List<DetectedFace> probes = extractor.detect(bucket, key);
+        int limit = maxFaces == null ? defaultMaxFaces : maxFaces;
+        float minSimilarity = threshold == null ? defaultThreshold : threshold;
+        Map<String, List<FaceMatch>> matchesByFace = new HashMap<>();
+        for (int i = 0; i < Math.min(probes.size(), faces.size()); i++) {
+            float[] embedding = probes.get(i).embedding();
+            List<FaceMatch> matches = gate.run(() -> search(collection, embedding, limit, minSimilarity));
+            if (!matches.isEmpty()) {
+                matchesByFace.put(faces.get(i).faceId(), matches);
+            }
+        }
+        return matchesByFace;
+    }
+
+    private List<FaceMatch> search(LocalCollection collection, float[] embedding, int limit, float minSimilarity) {
+        collection.lock.readLock().lock();
+        try {
+            List<HnswIndex.Scored> hits = collection.index.search(embedding, limit, efSearch, minSimilarity / 100F);
+            List<FaceMatch> matches = new ArrayList<>(hits.size());
+            for (HnswIndex.Scored hit : hits) {
+                matches.add(new FaceMatch(
+                        collection.store.faceId(hit.id()).toString(),
+                        toPercent(hit.score()),
+                        collection.store.confidence(hit.id())
+                ));
+            }
+            return matches;
+        } finally {
+            collection.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public float compareFaces(String bucket, String sourceKey, String targetKey, float threshold) {
+        DetectedFace source = largestFace(extractor.detect(bucket, sourceKey));
+        if (source == null) {
+            return 0F;
+        }
+        float best = 0F;
+        for (DetectedFace target : extractor.detect(bucket, targetKey)) {
+            best = Math.max(best, toPercent(dot(source.embedding(), target.embedding())));
+        }
+        return best >= threshold ? best : 0F;
+    }
+
+    @Override
+    public void deleteFaces(String collectionId, Collection<String> faceIds) {
+        if (faceIds == null || faceIds.isEmpty()) {
+            return;
+        }
+        LocalCollection collection = collection(collectionId);
+        collection.lock.writeLock().lock();
+        try {
+            for (String faceId : faceIds) {
+                collection.delete(faceId);
+            }
+        } finally {
+            collection.lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        collections.forEach((collectionId, collection) -> {
+            collection.lock.writeLock().lock();
+            try {
+                collection.store.close();
+            } catch (IOException e) {
+                log.warn("Failed to close face store for collection '{}': {}", collectionId, e.getMessage());
+            } finally {
+                collection.lock.writeLock().unlock();
+            }
+        });
+        collections.clear();
+    }
+
+    private LocalCollection collection(String collectionId) {
+        if (collectionId == null || !COLLECTION_ID.matcher(collectionId).matches()) {
+            throw new IllegalArgumentException("Invalid collection id: " + collectionId);
+        }
+        return collections.computeIfAbsent(collectionId, this::open);
+    }
+
+    private LocalCollection open(String collectionId) {
+        try {
+            Files.createDirectories(directory);
+            Path file = directory.resolve(collectionId + ".faces");
+            long startNanos = System.nanoTime();
+            MappedFaceStore store = MappedFaceStore.open(file, extractor.dimension());
+            LocalCollection collection = new LocalCollection(store, new HnswIndex(maxConnections, efConstruction));
+            collection.rebuild();
+            log.info("Opened local face collection '{}' with {} faces in {} ms",
+                    collectionId, store.count(), (System.nanoTime() - startNanos) / 1_000_000);
+            return collection;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open face collection " + collectionId, e);
+        }
+    }
+
+    private static DetectedFace largestFace(List<DetectedFace> faces) {
+        return faces.stream().max(Comparator.comparingDouble(DetectedFace::area)).orElse(null);
+    }
+
+    private static float toPercent(float cosine) {
+        return Math.max(0F, Math.min(1F, cosine)) * 100F;
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float sum = 0F;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static final class LocalCollection {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final MappedFaceStore store;
+        private final HnswIndex index;
+        private final Map<UUID, Integer> nodesByFaceId = new HashMap<>();
+
+        private LocalCollection(MappedFaceStore store, HnswIndex index) {
+            this.store = store;
+            this.index = index;
+        }
+
+        // Store record indexes and graph node ids line up because both are assigned in append order.
+        private void rebuild() {
+            for (int i = 0; i < store.count(); i++) {
+                index.add(store.embedding(i));
+                if (store.isDeleted(i)) {
+                    index.markDeleted(i);
+                } else {
+                    nodesByFaceId.put(store.faceId(i), i);
+                }
+            }
+        }
+
+        private void add(UUID faceId, float confidence, float[] embedding) {
+            int node = store.append(faceId, confidence, embedding);
+            index.add(embedding);
+            nodesByFaceId.put(faceId, node);
+        }
+
+        private Integer node(String faceId) {
+            try {
+                return nodesByFaceId.get(UUID.fromString(faceId));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        private void delete(String faceId) {
+            Integer node = node(faceId);
+            if (node != null) {
+                nodesByFaceId.remove(store.faceId(node));
+                store.markDeleted(node);
+                index.markDeleted(node);
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.racephotos.service.facematch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * Append-only, memory-mapped file of face records for one collection: a tombstone flag, the face id, its detection
+ * confidence and the embedding. The file is grown by remapping it at twice the size. Not thread-safe.
+ */
+final class MappedFaceStore implements Closeable {
+
+    private static final int MAGIC = 0x46414345; // "FACE"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int COUNT_OFFSET = 12;
+    private static final int INITIAL_RECORDS = 1024;
+
+    private final FileChannel channel;
+    private final int dimension;
+    private final int recordBytes;
+    private MappedByteBuffer buffer;
+    private int count;
+
+    private MappedFaceStore(FileChannel channel, int dimension) {
+        this.channel = channel;
+        this.dimension = dimension;
+        this.recordBytes = 4 + 16 + 4 + 4 * dimension;
+    }
+
+    static MappedFaceStore open(Path file, int dimension) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedFaceStore store = new MappedFaceStore(channel, dimension);
+        try {
+            store.load();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return store;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int append(UUID faceId, float confidence, float[] embedding) {
+        ensureCapacity(count + 1);
+        int offset = offset(count);
+        buffer.putInt(offset, 0);
+        buffer.putLong(offset + 4, faceId.getMostSignificantBits());
+        buffer.putLong(offset + 12, faceId.getLeastSignificantBits());
+        buffer.putFloat(offset + 20, confidence);
+        for (int d = 0; d < dimension; d++) {
+            buffer.putFloat(offset + 24 + d * 4, embedding[d]);
+        }
+        // Publish the record only after it is fully written.
+        buffer.putInt(COUNT_OFFSET, count + 1);
+        return count++;
+    }
+
+    void markDeleted(int index) {
+        buffer.putInt(offset(index), 1);
+    }
+
+    boolean isDeleted(int index) {
+        return buffer.getInt(offset(index)) != 0;
+    }
+
+    UUID faceId(int index) {
+        int offset = offset(index);
+        return new UUID(buffer.getLong(offset + 4), buffer.getLong(offset + 12));
+    }
+
+    float confidence(int index) {
+        return buffer.getFloat(offset(index) + 20);
+    }
+
+    float[] embedding(int index) {
+        int offset = offset(index) + 24;
+        float[] embedding = new float[dimension];
+        for (int d = 0; d < dimension; d++) {
+            embedding[d] = buffer.getFloat(offset + d * 4);
+        }
+        return embedding;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void load() throws IOException {
+        boolean fresh = channel.size() < HEADER_BYTES;
+        map(fresh ? HEADER_BYTES + (long) INITIAL_RECORDS * recordBytes : channel.size());
+        if (fresh) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, dimension);
+            buffer.putInt(COUNT_OFFSET, 0);
+            return;
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Unrecognised face store format");
+        }
+        if (buffer.getInt(8) != dimension) {
+            throw new IllegalStateException("Face store has dimension " + buffer.getInt(8) + ", expected " + dimension);
+        }
+        count = buffer.getInt(COUNT_OFFSET);
+    }
+
+    private void ensureCapacity(int records) {
+        long required = HEADER_BYTES + (long) records * recordBytes;
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        long grown = Math.max(required, (long) buffer.capacity() * 2);
+        if (grown > Integer.MAX_VALUE) {
+            grown = Integer.MAX_VALUE;
+            if (required > grown) {
+                throw new IllegalStateException("Face store is full");
+            }
+        }
+        try {
+            buffer.force();
+            map(grown);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to grow face store", e);
+        }
+    }
+
+    private void map(long size) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private int offset(int index) {
+        return HEADER_BYTES + index * recordBytes;
+    }
+}
@@ -0,0 +1,372 @@
+package com.racephotos.service.facematch;
+
+import com.racephotos.service.ingestion.ExifCaptureTimeExtractor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.rekognition.RekognitionClient;
+import software.amazon.awssdk.services.rekognition.model.BoundingBox;
+import software.amazon.awssdk.services.rekognition.model.CompareFacesMatch;
+import software.amazon.awssdk.services.rekognition.model.CompareFacesRequest;
+import software.amazon.awssdk.services.rekognition.model.CompareFacesResponse;
+import software.amazon.awssdk.services.rekognition.model.CreateCollectionRequest;
+import software.amazon.awssdk.services.rekognition.model.DeleteFacesRequest;
+import software.amazon.awssdk.services.rekognition.model.DescribeCollectionRequest;
+import software.amazon.awssdk.services.rekognition.model.Face;
+import software.amazon.awssdk.services.rekognition.model.FaceRecord;
+import software.amazon.awssdk.services.rekognition.model.Image;
+import software.amazon.awssdk.services.rekognition.model.IndexFacesRequest;
+import software.amazon.awssdk.services.rekognition.model.IndexFacesResponse;
+import software.amazon.awssdk.services.rekognition.model.InvalidParameterException;
+import software.amazon.awssdk.services.rekognition.model.QualityFilter;
+import software.amazon.awssdk.services.rekognition.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.rekognition.model.S3Object;
+import software.amazon.awssdk.services.rekognition.model.SearchFacesByImageRequest;
+import software.amazon.awssdk.services.rekognition.model.SearchFacesRequest;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@ConditionalOnProperty(name = "app.face-matching.engine", havingValue = "rekognition", matchIfMissing = true)
+public class RekognitionFaceMatchingEngine implements FaceMatchingEngine {
+
+    private static final Logger log = LogManager.getLogger(RekognitionFaceMatchingEngine.class);
+
+    // Context kept around each face when cropping, as a fraction of the box size.
+    private static final float CROP_PADDING = 0.3F;
+    // How far into the object the EXIF orientation is looked for before decoding starts over from the first byte.
+    private static final int EXIF_SCAN_LIMIT = 256 * 1024;
+
+    private final RekognitionClient rekognitionClient;
+    private final S3Client s3Client;
+    private final int maxDecodeDimension;
+    private final Set<String> ensuredCollections = ConcurrentHashMap.newKeySet();
+
+    public RekognitionFaceMatchingEngine(
+            RekognitionClient rekognitionClient,
+            S3Client s3Client,
+            @Value("${aws.rekognition.search-by-faces.max-decode-dimension:2048}") int maxDecodeDimension
+    ) {
+        this.rekognitionClient = Objects.requireNonNull(rekognitionClient, "rekognitionClient");
+        this.s3Client = Objects.requireNonNull(s3Client, "s3Client");
+        this.maxDecodeDimension = Math.max(256, maxDecodeDimension);
+    }
+
+    @Override
+    public void ensureCollection(String collectionId) {
+        if (ensuredCollections.contains(collectionId)) {
+            return;
+        }
+        synchronized (ensuredCollections) {
+            if (ensuredCollections.contains(collectionId)) {
+                return;
+            }
+            try {
+                rekognitionClient.describeCollection(DescribeCollectionRequest.builder()
+                        .collectionId(collectionId)
+                        .build());
+                log.debug("Rekognition collection '{}' already exists", collectionId);
+            } catch (ResourceNotFoundException notFound) {
+                log.info("Rekognition collection '{}' not found, creating it", collectionId);
+                rekognitionClient.createCollection(CreateCollectionRequest.builder()
+                        .collectionId(collectionId)
+                        .build());
+            }
+            ensuredCollections.add(collectionId);
+        }
+    }
+
+    @Override
+    public List<IndexedFace> indexFaces(String collectionId, String bucket, String key, String externalImageId) {
+        IndexFacesResponse response = rekognitionClient.indexFaces(IndexFacesRequest.builder()
+                .collectionId(collectionId)
+                .externalImageId(externalImageId)
+                .qualityFilter(QualityFilter.AUTO)
+                .image(image(bucket, key))
+                .build());
+        List<FaceRecord> records = response.faceRecords();
+        if (records == null) {
+            return List.of();
+        }
+        log.trace("Indexed {} faces for key={} (model v{})", records.size(), key, response.faceModelVersion());
+        return records.stream()
+                .map(FaceRecord::face)
+                .filter(Objects::nonNull)
+                .map(face -> new IndexedFace(face.faceId(), face.imageId(), face.boundingBox(), face.confidence()))
+                .toList();
+    }
+
+    @Override
+    public List<FaceMatch> searchByImage(String collectionId, String bucket, String key, Integer maxFaces, Float threshold) {
+        SearchFacesByImageRequest.Builder request = SearchFacesByImageRequest.builder()
+                .collectionId(collectionId)
+                .image(image(bucket, key));
+        if (maxFaces != null) {
+            request.maxFaces(maxFaces);
+        }
+        if (threshold != null) {
+            request.faceMatchThreshold(threshold);
+        }
+        return toMatches(rekognitionClient.searchFacesByImage(request.build()).faceMatches());
+    }
+
+    @Override
+    public List<FaceMatch> searchByFaceId(String collectionId, String faceId, Integer maxFaces, Float threshold) {
+        SearchFacesRequest.Builder request = SearchFacesRequest.builder()
+                .collectionId(collectionId)
+                .faceId(faceId);
+        if (maxFaces != null) {
+            request.maxFaces(maxFaces);
+        }
+        if (threshold != null) {
+            request.faceMatchThreshold(threshold);
+        }
+        return toMatches(rekognitionClient.searchFaces(request.build()).faceMatches());
+    }
+
+    /**
+     * SearchFacesByImage only probes with the largest face, so for photos with several faces each face is cropped out
+     * of the downloaded image and searched on its own. The image is decoded subsampled to at most
+     * {@code max-decode-dimension} pixels per side, which bounds the memory of a decode regardless of the upload size,
+     * and turned upright according to its EXIF orientation, since Rekognition reports boxes for the upright image.
+     */
+    @Override
+    public Map<String, List<FaceMatch>> searchByFaces(
+            String collectionId,
+            String bucket,
+            String key,
+            List<IndexedFace> faces,
+            Integer maxFaces,
+            Float threshold,
+            ProbeGate gate
+    ) {
+        if (faces == null || faces.isEmpty()) {
+            return Map.of();
+        }
+        BufferedImage photo = faces.size() == 1 ? null : readImage(bucket, key);
+        if (photo == null) {
+            if (faces.size() > 1) {
+                log.debug("Cannot decode {} for per-face search; probing with the largest face only", key);
+            }
+            IndexedFace largest = faces.stream()
+                    .max(Comparator.comparingDouble(face -> area(face.boundingBox())))
+                    .orElseThrow();
+            return Map.of(largest.faceId(), gate.run(() -> searchByImage(collectionId, bucket, key, maxFaces, threshold)));
+        }
+        Map<String, List<FaceMatch>> matchesByFace = new HashMap<>();
+        for (IndexedFace face : faces) {
+            byte[] crop = crop(photo, face.boundingBox());
+            if (crop == null) {
+                continue;
+            }
+            SearchFacesByImageRequest.Builder request = SearchFacesByImageRequest.builder()
+                    .collectionId(collectionId)
+                    .image(Image.builder().bytes(SdkBytes.fromByteArray(crop)).build());
+            if (maxFaces != null) {
+                request.maxFaces(maxFaces);
+            }
+            if (threshold != null) {
+                request.faceMatchThreshold(threshold);
+            }
+            try {
+                matchesByFace.put(face.faceId(),
+                        gate.run(() -> toMatches(rekognitionClient.searchFacesByImage(request.build()).faceMatches())));
+            } catch (InvalidParameterException noFace) {
+                log.trace("No face detected in crop of face {} in {}", face.faceId(), key);
+            }
+        }
+        return matchesByFace;
+    }
+
+    private static List<FaceMatch> toMatches(
+            List<software.amazon.awssdk.services.rekognition.model.FaceMatch> faceMatches
+    ) {
+        if (faceMatches == null) {
+            return List.of();
+        }
+        return faceMatches.stream()
+                .filter(match -> match != null && match.face() != null)
+                .map(match -> {
+                    Face face = match.face();
+                    float similarity = match.similarity() == null ? 0F : match.similarity();
+                    return new FaceMatch(face.faceId(), similarity, face.confidence());
+                })
+                .toList();
+    }
+
+    @Override
+    public float compareFaces(String bucket, String sourceKey, String targetKey, float threshold) {
+        CompareFacesResponse response = rekognitionClient.compareFaces(CompareFacesRequest.builder()
+                .sourceImage(image(bucket, sourceKey))
+                .targetImage(image(bucket, targetKey))
+                .similarityThreshold(threshold)
+                .build());
+        double max = response.faceMatches() == null ? 0.0 : response.faceMatches().stream()
+                .map(CompareFacesMatch::similarity)
+                .filter(Objects::nonNull)
+                .mapToDouble(Float::doubleValue)
+                .max()
+                .orElse(0.0);
+        return (float) max;
+    }
+
+    @Override
+    public void deleteFaces(String collectionId, Collection<String> faceIds) {
+        if (faceIds == null || faceIds.isEmpty()) {
+            return;
+        }
+        rekognitionClient.deleteFaces(DeleteFacesRequest.builder()
+                .collectionId(collectionId)
+                .faceIds(faceIds)
+                .build());
+    }
+
+    private BufferedImage readImage(String bucket, String key) {
+        GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .build();
+        try (ResponseInputStream<GetObjectResponse> object = s3Client.getObject(request);
+             BufferedInputStream buffered = new BufferedInputStream(object)) {
+            buffered.mark(EXIF_SCAN_LIMIT);
+            int orientation = ExifCaptureTimeExtractor.readOrientation(buffered);
+            buffered.reset();
+            BufferedImage decoded = decode(buffered);
+            return decoded == null ? null : orient(decoded, orientation);
+        } catch (IOException e) {
+            // Includes a reset past the scan limit; the caller then probes with the whole image.
+            return null;
+        }
+    }
+
+    private BufferedImage decode(BufferedInputStream object) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(object)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, (longestSide + maxDecodeDimension - 1) / maxDecodeDimension);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Applies an EXIF orientation (2-8: mirrored and/or rotated by a multiple of 90 degrees) to the decoded pixels.
+     */
+    private static BufferedImage orient(BufferedImage photo, int orientation) {
+        int w = photo.getWidth();
+        int h = photo.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);
+            default -> null;
+        };
+        if (transform == null) {
+            return photo;
+        }
+        boolean swapsSides = orientation >= 5;
+        BufferedImage upright = new BufferedImage(swapsSides ? h : w, swapsSides ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = upright.createGraphics();
+        try {
+            graphics.drawImage(photo, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return upright;
+    }
+
+    private static byte[] crop(BufferedImage photo, BoundingBox box) {
+        if (box == null || box.width() == null || box.height() == null || box.left() == null || box.top() == null) {
+            return null;
+        }
+        int width = photo.getWidth();
+        int height = photo.getHeight();
+        double padX = box.width() * CROP_PADDING;
+        double padY = box.height() * CROP_PADDING;
+        int x0 = clamp((box.left() - padX) * width, width);
+        int y0 = clamp((box.top() - padY) * height, height);
+        int x1 = clamp((box.left() + box.width() + padX) * width, width);
+        int y1 = clamp((box.top() + box.height() + padY) * height, height);
+        if (x1 - x0 < 2 || y1 - y0 < 2) {
+            return null;
+        }
+        BufferedImage region = photo.getSubimage(x0, y0, x1 - x0, y1 - y0);
+        BufferedImage rgb = new BufferedImage(region.getWidth(), region.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        try {
+            graphics.drawImage(region, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(rgb, "jpg", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static double area(BoundingBox box) {
+        if (box == null || box.width() == null || box.height() == null) {
+            return 0;
+        }
+        return box.width() * box.height();
+    }
+
+    private static int clamp(double value, int max) {
+        return (int) Math.max(0, Math.min(max, Math.round(value)));
+    }
+
+    private static Image image(String bucket, String key) {
+        return Image.builder()
+                .s3Object(S3Object.builder()
+                        .bucket(bucket)
+                        .name(key)
+                        .build())
+                .build();
+    }
+}
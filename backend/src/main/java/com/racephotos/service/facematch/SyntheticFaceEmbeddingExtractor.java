@@ -0,0 +1,100 @@
+package com.racephotos.service.facematch;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.rekognition.model.BoundingBox;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Deterministic stand-in for a face embedding model, for benchmarks and AWS-free local runs. Each image key yields
+ * one to {@code max-faces-per-image} faces, each drawn from a fixed population of synthetic identities: a face is its
+ * identity's unit vector plus noise, so photos sharing an identity match each other with high similarity. No image
+ * bytes are read. Replace this bean to plug in a real model.
+ */
+@Component
+@ConditionalOnProperty(name = "app.face-matching.engine", havingValue = "local")
+public class SyntheticFaceEmbeddingExtractor implements FaceEmbeddingExtractor {
+
+    private static final long IDENTITY_SEED = 0x5DEECE66DL;
+
+    private final int dimension;
+    private final int identities;
+    private final int maxFacesPerImage;
+    private final double noise;
+
+    public SyntheticFaceEmbeddingExtractor(
+            @Value("${app.face-matching.local.dimension:128}") int dimension,
+            @Value("${app.face-matching.local.synthetic.identities:5000}") int identities,
+            @Value("${app.face-matching.local.synthetic.max-faces-per-image:3}") int maxFacesPerImage,
+            @Value("${app.face-matching.local.synthetic.noise:0.3}") double noise
+    ) {
+        this.dimension = Math.max(8, dimension);
+        this.identities = Math.max(1, identities);
+        this.maxFacesPerImage = Math.max(1, maxFacesPerImage);
+        this.noise = Math.max(0.0, noise);
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public List<DetectedFace> detect(String bucket, String key) {
+        UUID digest = UUID.nameUUIDFromBytes((bucket + "/" + key).getBytes(StandardCharsets.UTF_8));
+        SplittableRandom random = new SplittableRandom(digest.getMostSignificantBits() ^ digest.getLeastSignificantBits());
+        int faces = 1 + random.nextInt(maxFacesPerImage);
+        List<DetectedFace> detected = new ArrayList<>(faces);
+        for (int i = 0; i < faces; i++) {
+            float[] embedding = identityVector(random.nextInt(identities));
+            float[] jitter = randomUnitVector(random);
+            for (int d = 0; d < dimension; d++) {
+                embedding[d] += (float) (noise * jitter[d]);
+            }
+            normalize(embedding);
+            float width = 0.05F + random.nextFloat() * 0.2F;
+            float height = width * 1.3F;
+            BoundingBox box = BoundingBox.builder()
+                    .width(width)
+                    .height(height)
+                    .left(random.nextFloat() * (1F - width))
+                    .top(random.nextFloat() * (1F - height))
+                    .build();
+            detected.add(new DetectedFace(embedding, box, 90F + random.nextFloat() * 10F));
+        }
+        return detected;
+    }
+
+    private float[] identityVector(int identity) {
+        return randomUnitVector(new SplittableRandom(IDENTITY_SEED + identity));
+    }
+
+    private float[] randomUnitVector(SplittableRandom random) {
+        float[] vector = new float[dimension];
+        for (int d = 0; d < dimension; d++) {
+            vector[d] = (float) random.nextGaussian();
+        }
+        normalize(vector);
+        return vector;
+    }
+
+    static void normalize(float[] vector) {
+        double sum = 0;
+        for (float v : vector) {
+            sum += v * v;
+        }
+        if (sum == 0) {
+            return;
+        }
+        float scale = (float) (1.0 / Math.sqrt(sum));
+        for (int d = 0; d < vector.length; d++) {
+            vector[d] *= scale;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.racephotos.service.ingestion;
+
+import com.racephotos.domain.photo.PhotoAssetBulkRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds newly ingested assets to the indexer in micro-batches that are flushed after {@code batch-size} assets or
+ * {@code max-delay-millis}, whichever comes first, and are indexed on a bounded executor so several batches can be in
+ * flight at once. The queue itself is not durable: the unindexed photo_assets rows are the handoff, and a periodic
+ * sweep starts indexing jobs for events whose assets were stranded by a restart or a full queue.
+ */
+@Component
+public class ContinuousIndexingQueue {
+
+    private static final Logger log = LogManager.getLogger(ContinuousIndexingQueue.class);
+
+    private final FaceIndexingService faceIndexingService;
+    private final FaceIndexingJobService faceIndexingJobService;
+    private final PhotoAssetBulkRepository bulkRepository;
+    private final Executor executor;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final Duration recoveryGrace;
+    private final BlockingQueue<PendingAsset> queue;
+    private volatile boolean running;
+    private Thread drainer;
+
+    public ContinuousIndexingQueue(
+            FaceIndexingService faceIndexingService,
+            FaceIndexingJobService faceIndexingJobService,
+            PhotoAssetBulkRepository bulkRepository,
+            @Qualifier("continuousIndexingExecutor") Executor executor,
+            @Value("${app.indexing.continuous.enabled:true}") boolean enabled,
+            @Value("${app.indexing.continuous.batch-size:25}") int batchSize,
+            @Value("${app.indexing.continuous.max-delay-millis:500}") long maxDelayMillis,
+            @Value("${app.indexing.continuous.capacity:10000}") int capacity,
+            @Value("${app.indexing.continuous.recovery-grace-seconds:120}") long recoveryGraceSeconds
+    ) {
+        this.faceIndexingService = Objects.requireNonNull(faceIndexingService, "faceIndexingService");
+        this.faceIndexingJobService = Objects.requireNonNull(faceIndexingJobService, "faceIndexingJobService");
+        this.bulkRepository = Objects.requireNonNull(bulkRepository, "bulkRepository");
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, maxDelayMillis));
+        this.recoveryGrace = Duration.ofSeconds(Math.max(1L, recoveryGraceSeconds));
+        this.queue = new LinkedBlockingQueue<>(Math.max(this.batchSize, capacity));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Continuous indexing disabled");
+            return;
+        }
+        running = true;
+        drainer = Thread.ofVirtual().name("continuous-indexing").start(this::drainLoop);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (drainer != null) {
+            drainer.interrupt();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPhotoAssetsStored(PhotoAssetsStoredEvent event) {
+        if (!enabled) {
+            return;
+        }
+        int dropped = 0;
+        for (UUID assetId : event.assetIds()) {
+            if (!queue.offer(new PendingAsset(event.eventId(), assetId))) {
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            log.warn("Continuous indexing queue full, {} assets of event {} left for the recovery sweep",
+                    dropped, event.eventId());
+        }
+    }
+
+    /**
+     * Starts indexing jobs for events with stranded assets. Events that already have a running job are skipped, and the
+     * one-running-job-per-event index lets only one node create a job when several sweep at the same time.
+     */
+    @Scheduled(fixedDelayString = "${app.indexing.continuous.recovery-interval-millis:60000}",
+            initialDelayString = "${app.indexing.continuous.recovery-interval-millis:60000}")
+    public void recoverStrandedAssets() {
+        if (!enabled) {
+            return;
+        }
+        for (UUID eventId : bulkRepository.findEventsWithStrandedAssets(Instant.now().minus(recoveryGrace))) {
+            try {
+                faceIndexingJobService.startOrAttach(eventId);
+            } catch (RuntimeException e) {
+                log.error("Failed to start recovery indexing for event {}: {}", eventId, e.getMessage());
+            }
+        }
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                PendingAsset first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<PendingAsset> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingAsset next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void flush(List<PendingAsset> batch) {
+        Map<UUID, List<UUID>> idsByEvent = new LinkedHashMap<>();
+        for (PendingAsset pending : batch) {
+            idsByEvent.computeIfAbsent(pending.eventId(), id -> new ArrayList<>()).add(pending.assetId());
+        }
+        // Blocks while the executor is at its concurrency limit.
+        idsByEvent.forEach((eventId, assetIds) -> {
+            try {
+                executor.execute(() -> index(eventId, assetIds));
+            } catch (RuntimeException e) {
+                log.error("Could not dispatch {} assets of event {} for indexing: {}",
+                        assetIds.size(), eventId, e.getMessage());
+            }
+        });
+    }
+
+    private void index(UUID eventId, List<UUID> assetIds) {
+        try {
+            faceIndexingService.indexAssets(eventId, assetIds);
+        } catch (RuntimeException e) {
+            // Unindexed rows stay in the table and are retried by the recovery sweep.
+            log.error("Continuous indexing failed for {} assets of event {}: {}", assetIds.size(), eventId, e.getMessage());
+        }
+    }
+
+    private record PendingAsset(UUID eventId, UUID assetId) { }
+}
@@ -0,0 +1,359 @@
+package com.racephotos.service.ingestion;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.StructuredTaskScope;
+
+/**
+ * Reads the EXIF capture time of JPEG uploads from a ranged GET of the object's first bytes.
+ * Only the APP1 segment is buffered, so memory per in-flight object is bounded by the range size.
+ * {@link #readOrientation} reads the Orientation tag from the same segment.
+ */
+@Component
+@SuppressWarnings("preview")
+public class ExifCaptureTimeExtractor {
+
+    private static final Logger log = LogManager.getLogger(ExifCaptureTimeExtractor.class);
+    private static final DateTimeFormatter EXIF_DATE_TIME = DateTimeFormatter.ofPattern("yyyy:MM:dd HH:mm:ss");
+    private static final byte[] EXIF_HEADER = {'E', 'x', 'i', 'f', 0, 0};
+
+    private static final int MARKER_SOI = 0xD8;
+    private static final int MARKER_EOI = 0xD9;
+    private static final int MARKER_SOS = 0xDA;
+    private static final int MARKER_APP1 = 0xE1;
+
+    private static final int TAG_ORIENTATION = 0x0112;
+    private static final int TAG_DATE_TIME = 0x0132;
+    private static final int TAG_EXIF_IFD_POINTER = 0x8769;
+    private static final int TAG_DATE_TIME_ORIGINAL = 0x9003;
+    private static final int TAG_DATE_TIME_DIGITIZED = 0x9004;
+    private static final int TAG_OFFSET_TIME_ORIGINAL = 0x9011;
+    private static final int TYPE_ASCII = 2;
+    private static final int TYPE_SHORT = 3;
+
+    public static final int ORIENTATION_NORMAL = 1;
+
+    private final S3Client s3Client;
+    private final boolean enabled;
+    private final int maxBytes;
+    private final int maxInFlight;
+    private final AwsRequestOverrideConfiguration requestOverride;
+
+    public ExifCaptureTimeExtractor(
+            S3Client s3Client,
+            @Value("${app.ingestion.exif.enabled:true}") boolean enabled,
+            @Value("${app.ingestion.exif.max-bytes:65536}") int maxBytes,
+            @Value("${app.ingestion.exif.max-in-flight:16}") int maxInFlight,
+            @Value("${app.ingestion.exif.timeout-millis:5000}") long timeoutMillis
+    ) {
+        this.s3Client = Objects.requireNonNull(s3Client, "s3Client");
+        this.enabled = enabled;
+        this.maxBytes = Math.max(1024, maxBytes);
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.requestOverride = AwsRequestOverrideConfiguration.builder()
+                .apiCallTimeout(Duration.ofMillis(Math.max(1L, timeoutMillis)))
+                .build();
+    }
+
+    public Map<String, Instant> extractAll(String bucket, List<String> keys, ZoneId defaultZone) {
+        if (!enabled || keys == null || keys.isEmpty()) {
+            return Map.of();
+        }
+        ZoneId zone = defaultZone == null ? ZoneOffset.UTC : defaultZone;
+        Map<String, Instant> extracted = new ConcurrentHashMap<>();
+        Semaphore permits = new Semaphore(maxInFlight);
+
+        try (var scope = new StructuredTaskScope<Void>()) {
+            for (String key : keys) {
+                permits.acquire();
+                scope.fork(() -> {
+                    try {
+                        extract(bucket, key, zone).ifPresent(instant -> extracted.put(key, instant));
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                });
+            }
+            scope.join();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("EXIF extraction interrupted", ie);
+        }
+        log.debug("Extracted EXIF capture time for {}/{} keys in bucket={}", extracted.size(), keys.size(), bucket);
+        return new HashMap<>(extracted);
+    }
+
+    public Optional<Instant> extract(String bucket, String key, ZoneId defaultZone) {
+        GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .range("bytes=0-" + (maxBytes - 1))
+                .overrideConfiguration(requestOverride)
+                .build();
+        try (ResponseInputStream<GetObjectResponse> body = s3Client.getObject(request)) {
+            return readCaptureTime(new BufferedInputStream(body, 8192), defaultZone);
+        } catch (SdkException | IOException e) {
+            log.debug("Unable to read EXIF for bucket={} key={}: {}", bucket, key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    static Optional<Instant> readCaptureTime(InputStream input, ZoneId defaultZone) throws IOException {
+        byte[] segment = readExifSegment(input);
+        return segment == null ? Optional.empty() : parseTiff(segment, EXIF_HEADER.length, defaultZone);
+    }
+
+    /**
+     * Returns the EXIF orientation (1-8) of a JPEG stream, or {@link #ORIENTATION_NORMAL} when the stream has none.
+     * Reading stops at the APP1 segment or the start of the image data.
+     */
+    public static int readOrientation(InputStream input) throws IOException {
+        byte[] segment = readExifSegment(input);
+        TiffReader tiff = segment == null ? null : TiffReader.open(segment, EXIF_HEADER.length);
+        if (tiff == null) {
+            return ORIENTATION_NORMAL;
+        }
+        int orientation = tiff.readShort(tiff.u32(4), TAG_ORIENTATION);
+        return orientation >= 1 && orientation <= 8 ? orientation : ORIENTATION_NORMAL;
+    }
+
+    /**
+     * Returns the APP1 Exif payload including its header, or {@code null} when the stream is not a JPEG, has no Exif
+     * block, or ends before it.
+     */
+    private static byte[] readExifSegment(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(input);
+        try {
+            if (in.readUnsignedByte() != 0xFF || in.readUnsignedByte() != MARKER_SOI) {
+                return null;
+            }
+            while (true) {
+                int marker = nextMarker(in);
+                if (marker == MARKER_SOS || marker == MARKER_EOI) {
+                    return null;
+                }
+                int length = in.readUnsignedShort() - 2;
+                if (length < 0) {
+                    return null;
+                }
+                if (marker != MARKER_APP1) {
+                    in.skipNBytes(length);
+                    continue;
+                }
+                byte[] segment = new byte[length];
+                in.readFully(segment);
+                if (!startsWith(segment, EXIF_HEADER)) {
+                    continue; // XMP and other APP1 payloads
+                }
+                return segment;
+            }
+        } catch (EOFException e) {
+            // The EXIF block did not fit into the ranged read.
+            return null;
+        }
+    }
+
+    private static int nextMarker(DataInputStream in) throws IOException {
+        int b = in.readUnsignedByte();
+        if (b != 0xFF) {
+            throw new EOFException("Not positioned at a JPEG marker");
+        }
+        int marker;
+        do {
+            marker = in.readUnsignedByte();
+        } while (marker == 0xFF);
+        return marker;
+    }
+
+    private static Optional<Instant> parseTiff(byte[] data, int tiffStart, ZoneId defaultZone) {
+        TiffReader tiff = TiffReader.open(data, tiffStart);
+        if (tiff == null) {
+            return Optional.empty();
+        }
+        int ifd0 = tiff.u32(4);
+        Map<Integer, String> ifd0Values = new HashMap<>();
+        int exifIfd = tiff.readIfd(ifd0, ifd0Values);
+
+        Map<Integer, String> exifValues = new HashMap<>();
+        if (exifIfd > 0) {
+            tiff.readIfd(exifIfd, exifValues);
+        }
+
+        String dateTime = firstNonBlank(
+                exifValues.get(TAG_DATE_TIME_ORIGINAL),
+                exifValues.get(TAG_DATE_TIME_DIGITIZED),
+                ifd0Values.get(TAG_DATE_TIME)
+        );
+        if (dateTime == null) {
+            return Optional.empty();
+        }
+        try {
+            LocalDateTime local = LocalDateTime.parse(dateTime, EXIF_DATE_TIME);
+            String offset = exifValues.get(TAG_OFFSET_TIME_ORIGINAL);
+            if (offset != null && !offset.isBlank()) {
+                return Optional.of(local.toInstant(ZoneOffset.of(offset.trim())));
+            }
+            return Optional.of(local.atZone(defaultZone).toInstant());
+        } catch (DateTimeException e) {
+            log.debug("Unable to parse EXIF date '{}'", dateTime);
+            return Optional.empty();
+        }
+    }
+
+    private static boolean startsWith(byte[] data, byte[] prefix) {
+        if (data.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String firstNonBlank(String... values) {
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private record TiffReader(byte[] data, int start, boolean littleEndian) {
+
+        static TiffReader open(byte[] data, int start) {
+            if (data.length < start + 8) {
+                return null;
+            }
+            boolean little;
+            if (data[start] == 'I' && data[start + 1] == 'I') {
+                little = true;
+            } else if (data[start] == 'M' && data[start + 1] == 'M') {
+                little = false;
+            } else {
+                return null;
+            }
+            TiffReader reader = new TiffReader(data, start, little);
+            return reader.u16(2) == 42 ? reader : null;
+        }
+
+        /**
+         * Collects ASCII date/offset tags from the IFD at {@code offset} and returns the Exif sub-IFD offset, or -1.
+         */
+        int readIfd(int offset, Map<Integer, String> asciiValues) {
+            if (!inBounds(offset, 2)) {
+                return -1;
+            }
+            int exifPointer = -1;
+            int entries = u16(offset);
+            for (int i = 0; i < entries; i++) {
+                int entry = offset + 2 + i * 12;
+                if (!inBounds(entry, 12)) {
+                    break;
+                }
+                int tag = u16(entry);
+                int type = u16(entry + 2);
+                int count = u32(entry + 4);
+                if (tag == TAG_EXIF_IFD_POINTER) {
+                    exifPointer = u32(entry + 8);
+                } else if (type == TYPE_ASCII && isDateTag(tag) && count > 0) {
+                    int valueOffset = count <= 4 ? entry + 8 : u32(entry + 8);
+                    if (inBounds(valueOffset, count)) {
+                        asciiValues.put(tag, ascii(valueOffset, count));
+                    }
+                }
+            }
+            return exifPointer;
+        }
+
+        /**
+         * Returns the value of a SHORT tag of the IFD at {@code offset}, or -1 when it is absent.
+         */
+        int readShort(int offset, int wantedTag) {
+            if (!inBounds(offset, 2)) {
+                return -1;
+            }
+            int entries = u16(offset);
+            for (int i = 0; i < entries; i++) {
+                int entry = offset + 2 + i * 12;
+                if (!inBounds(entry, 12)) {
+                    break;
+                }
+                if (u16(entry) == wantedTag && u16(entry + 2) == TYPE_SHORT) {
+                    return u16(entry + 8);
+                }
+            }
+            return -1;
+        }
+
+        private static boolean isDateTag(int tag) {
+            return tag == TAG_DATE_TIME
+                    || tag == TAG_DATE_TIME_ORIGINAL
+                    || tag == TAG_DATE_TIME_DIGITIZED
+                    || tag == TAG_OFFSET_TIME_ORIGINAL;
+        }
+
+        private boolean inBounds(int offset, int length) {
+            return offset >= 0 && length >= 0 && (long) start + offset + length <= data.length;
+        }
+
+        private String ascii(int offset, int count) {
+            int end = count;
+            while (end > 0 && data[start + offset + end - 1] == 0) {
+                end--;
+            }
+            return new String(data, start + offset, end, StandardCharsets.US_ASCII).trim();
+        }
+
+        int u16(int offset) {
+            int b0 = data[start + offset] & 0xFF;
+            int b1 = data[start + offset + 1] & 0xFF;
+            return littleEndian ? (b1 << 8) | b0 : (b0 << 8) | b1;
+        }
+
+        int u32(int offset) {
+            if (!inBounds(offset, 4)) {
+                return -1;
+            }
+            int b0 = data[start + offset] & 0xFF;
+            int b1 = data[start + offset + 1] & 0xFF;
+            int b2 = data[start + offset + 2] & 0xFF;
+            int b3 = data[start + offset + 3] & 0xFF;
+            return littleEndian
+                    ? (b3 << 24) | (b2 << 16) | (b1 << 8) | b0
+                    : (b0 << 24) | (b1 << 16) | (b2 << 8) | b3;
+        }
+    }
+}
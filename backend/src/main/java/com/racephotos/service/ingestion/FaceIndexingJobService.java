@@ -1,34 +1,215 @@
 package com.racephotos.service.ingestion;
 
+import com.racephotos.domain.event.EventRepository;
+import com.racephotos.domain.photo.FaceIndexingJob;
+import com.racephotos.domain.photo.FaceIndexingJobRepository;
+import com.racephotos.domain.photo.FaceIndexingJobStatus;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.scheduling.annotation.AsyncResult;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.Future;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 @Service
 public class FaceIndexingJobService {
 
     private static final Logger log = LogManager.getLogger(FaceIndexingJobService.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
 
     private final FaceIndexingService faceIndexingService;
+    private final FaceIndexingJobRepository jobRepository;
+    private final EventRepository eventRepository;
+    private final Executor faceIndexingExecutor;
+    private final Duration staleJobThreshold;
+    private final Set<UUID> activeJobs = ConcurrentHashMap.newKeySet();
 
-    public FaceIndexingJobService(FaceIndexingService faceIndexingService) {
-        this.faceIndexingService = faceIndexingService;
+    public FaceIndexingJobService(
+            FaceIndexingService faceIndexingService,
+            FaceIndexingJobRepository jobRepository,
+            EventRepository eventRepository,
+            @Qualifier("faceIndexingExecutor") Executor faceIndexingExecutor,
+            @Value("${app.indexing.stale-job-seconds:900}") long staleJobSeconds
+    ) {
+        this.faceIndexingService = Objects.requireNonNull(faceIndexingService, "faceIndexingService");
+        this.jobRepository = Objects.requireNonNull(jobRepository, "jobRepository");
+        this.eventRepository = Objects.requireNonNull(eventRepository, "eventRepository");
+        this.faceIndexingExecutor = Objects.requireNonNull(faceIndexingExecutor, "faceIndexingExecutor");
+        this.staleJobThreshold = Duration.ofSeconds(Math.max(60L, staleJobSeconds));
     }
 
-    @Async("faceIndexingExecutor")
-    public Future<Void> indexUnindexedAsync(UUID eventId) {
+    /**
+     * Starts an indexing job for the event, or returns the job that is already running for it. A partial unique index
+     * allows only one RUNNING job per event, so when two requests or nodes race, the loser attaches to the winner's job.
+     */
+    public FaceIndexingJob startOrAttach(UUID eventId) {
+        Optional<FaceIndexingJob> running =
+                jobRepository.findFirstByEventIdAndStatusOrderByStartedAtDesc(eventId, FaceIndexingJobStatus.RUNNING);
+        if (running.isPresent()) {
+            log.info("Indexing job {} already running for event {}", running.get().getId(), eventId);
+            return running.get();
+        }
+        if (!eventRepository.existsById(eventId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Event not found");
+        }
+        FaceIndexingJob job = new FaceIndexingJob();
+        job.setEventId(eventId);
+        try {
+            job = jobRepository.saveAndFlush(job);
+        } catch (DataIntegrityViolationException e) {
+            FaceIndexingJob winner = jobRepository
+                    .findFirstByEventIdAndStatusOrderByStartedAtDesc(eventId, FaceIndexingJobStatus.RUNNING)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT,
+                            "Indexing job for the event changed concurrently, retry"));
+            log.info("Indexing job {} was started concurrently for event {}", winner.getId(), eventId);
+            return winner;
+        }
+        log.info("Created indexing job {} for event {}", job.getId(), eventId);
+        submit(job.getId());
+        return job;
+    }
+
+    public Optional<FaceIndexingJob> findJob(UUID eventId, UUID jobId) {
+        return jobRepository.findByIdAndEventId(jobId, eventId);
+    }
+
+    public List<FaceIndexingJob> listJobs(UUID eventId) {
+        return jobRepository.findTop20ByEventIdOrderByStartedAtDesc(eventId);
+    }
+
+    /**
+     * Ensures the one-running-job-per-event index, then resumes jobs that nobody is working on. Jobs with a fresh
+     * heartbeat belong to a live node and are left to it; jobs this node was working on when it shut down were marked
+     * abandoned and are resumed right away.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        try {
+            int superseded = jobRepository.failDuplicateRunningJobs(Instant.now());
+            if (superseded > 0) {
+                log.warn("Failed {} duplicate running indexing jobs", superseded);
+            }
+            jobRepository.createSingleRunningJobIndex();
+        } catch (DataAccessException e) {
+            // Another node starting at the same time may be building the index.
+            log.warn("Could not ensure the running indexing job index: {}", e.getMessage());
+        }
+        resumeStaleJobs();
+    }
+
+    /**
+     * Picks up running jobs whose owner stopped reporting progress, e.g. because its node died.
+     */
+    @Scheduled(fixedDelayString = "${app.indexing.job-sweep-interval-millis:60000}",
+            initialDelayString = "${app.indexing.job-sweep-interval-millis:60000}")
+    public void resumeStaleJobs() {
+        Instant cutoff = Instant.now().minus(staleJobThreshold);
+        for (FaceIndexingJob job : jobRepository.findRunningWithHeartbeatBefore(cutoff)) {
+            if (!activeJobs.contains(job.getId())) {
+                log.info("Taking over stale indexing job {} for event {} (last heartbeat {})",
+                        job.getId(), job.getEventId(), job.getHeartbeatAt());
+                submit(job.getId());
+            }
+        }
+    }
+
+    private void submit(UUID jobId) {
+        if (!activeJobs.add(jobId)) {
+            return;
+        }
         try {
-            var report = faceIndexingService.indexUnindexedPhotoAssets(eventId);
-            log.info("Async indexing complete for event {} (requested={}, success={}, failed={})",
-                    eventId, report.requestedImages(), report.successfullyIndexedImages(), report.failedImages().size());
+            faceIndexingExecutor.execute(() -> {
+                try {
+                    runJob(jobId);
+                } finally {
+                    activeJobs.remove(jobId);
+                }
+            });
+        } catch (RuntimeException e) {
+            activeJobs.remove(jobId);
+            throw e;
+        }
+    }
+
+    private void runJob(UUID jobId) {
+        FaceIndexingJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() != FaceIndexingJobStatus.RUNNING) {
+            return;
+        }
+        UUID eventId = job.getEventId();
+        try {
+            var report = faceIndexingService.indexUnindexedPhotoAssets(eventId, new JobProgressRecorder(jobId));
+            finish(jobId, FaceIndexingJobStatus.COMPLETED, null);
+            log.info("Indexing job {} complete for event {} (requested={}, success={}, failed={})",
+                    jobId, eventId, report.requestedImages(), report.successfullyIndexedImages(), report.failedImageCount());
         } catch (Exception e) {
-            log.error("Async indexing failed for event {}", eventId, e);
+            if (Thread.currentThread().isInterrupted()) {
+                // Shutdown: leave the job RUNNING but stale, so another node (or this one on its next start) takes
+                // it over once its leases expire.
+                log.warn("Indexing job {} for event {} interrupted", jobId, eventId);
+                abandon(jobId);
+                return;
+            }
+            log.error("Indexing job {} failed for event {}", jobId, eventId, e);
+            finish(jobId, FaceIndexingJobStatus.FAILED, e.getMessage());
+        }
+    }
+
+    private void abandon(UUID jobId) {
+        // Clear the interrupt for the duration of the write, the connection pool refuses interrupted callers.
+        boolean interrupted = Thread.interrupted();
+        try {
+            jobRepository.abandon(jobId, Instant.EPOCH);
+        } catch (RuntimeException e) {
+            log.warn("Could not mark indexing job {} as abandoned: {}", jobId, e.getMessage());
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void finish(UUID jobId, FaceIndexingJobStatus status, String error) {
+        String truncated = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        jobRepository.finish(jobId, status, truncated, Instant.now());
+    }
+
+    /**
+     * Writes the difference to the previously reported progress of this run to the job row.
+     */
+    private final class JobProgressRecorder implements FaceIndexingService.IndexingProgressListener {
+
+        private final UUID jobId;
+        private FaceIndexingService.IndexingProgress previous;
+
+        private JobProgressRecorder(UUID jobId) {
+            this.jobId = jobId;
+        }
+
+        @Override
+        public void onProgress(FaceIndexingService.IndexingProgress progress) {
+            int scheduled = progress.scheduledImages() - (previous == null ? 0 : previous.scheduledImages());
+            int indexed = progress.successfullyIndexedImages() - (previous == null ? 0 : previous.successfullyIndexedImages());
+            int failed = progress.failedImages() - (previous == null ? 0 : previous.failedImages());
+            int faces = progress.totalFaces() - (previous == null ? 0 : previous.totalFaces());
+            jobRepository.addProgress(jobId, scheduled, indexed, failed, faces, progress.cursor(), Instant.now());
+            previous = progress;
         }
-        return AsyncResult.forValue(null);
     }
 }
@@ -2,36 +2,50 @@ package com.racephotos.service.ingestion;
 
 import com.racephotos.domain.event.Event;
 import com.racephotos.domain.event.EventRepository;
-import com.racephotos.domain.photo.PhotoAsset;
-import com.racephotos.domain.photo.PhotoAssetRepository;
+import com.racephotos.domain.photo.ClaimedPhotoAsset;
+import com.racephotos.domain.photo.PhotoAssetBulkRepository;
+import com.racephotos.service.facematch.FaceMatchingEngine;
+import com.racephotos.service.facematch.FaceMatchingEngine.IndexedFace;
+import com.racephotos.service.ingestion.FaceMetadataRepository.FaceMetadataRecord;
+import com.racephotos.service.rekognition.RekognitionCallLimiter;
+import com.racephotos.service.rekognition.RekognitionCallLimiter.Priority;
+import com.racephotos.service.search.EventFaceMetadataCache;
+import com.racephotos.service.search.FaceIndexGenerations;
+import com.racephotos.service.selfie.SelfieMatchService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.core.exception.SdkException;
-import software.amazon.awssdk.services.rekognition.RekognitionClient;
-import software.amazon.awssdk.services.rekognition.model.CreateCollectionRequest;
-import software.amazon.awssdk.services.rekognition.model.DescribeCollectionRequest;
-import software.amazon.awssdk.services.rekognition.model.FaceRecord;
-import software.amazon.awssdk.services.rekognition.model.Image;
-import software.amazon.awssdk.services.rekognition.model.IndexFacesRequest;
-import software.amazon.awssdk.services.rekognition.model.IndexFacesResponse;
-import software.amazon.awssdk.services.rekognition.model.QualityFilter;
-import software.amazon.awssdk.services.rekognition.model.ResourceNotFoundException;
-import software.amazon.awssdk.services.rekognition.model.S3Object;
+import software.amazon.awssdk.services.rekognition.model.AccessDeniedException;
+import software.amazon.awssdk.services.rekognition.model.ImageTooLargeException;
+import software.amazon.awssdk.services.rekognition.model.InvalidImageFormatException;
+import software.amazon.awssdk.services.rekognition.model.InvalidParameterException;
+import software.amazon.awssdk.services.rekognition.model.InvalidS3ObjectException;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @SuppressWarnings("preview")
@@ -39,199 +53,413 @@ public class FaceIndexingService {
 
     private static final Logger log = LogManager.getLogger(FaceIndexingService.class);
     private static final int MAX_EXTERNAL_IMAGE_ID = 256;
+    // Postgres compares uuid values as unsigned bytes, unlike UUID.compareTo.
+    private static final Comparator<UUID> DATABASE_UUID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
 
-    private final RekognitionClient rekognitionClient;
+    private final FaceMatchingEngine faceMatching;
     private final FaceMetadataRepository metadataRepository;
-    private final PhotoAssetRepository photoAssetRepository;
+    private final PhotoAssetBulkRepository bulkRepository;
     private final EventRepository eventRepository;
+    private final PhotoAssetStatusWriter statusWriter;
+    private final RekognitionCallLimiter callLimiter;
+    private final IndexingFairScheduler fairScheduler;
+    private final FaceIndexGenerations indexGenerations;
+    private final EventFaceMetadataCache metadataCache;
+    private final SelfieMatchService selfieMatchService;
     private final String bucket;
     private final int maxConcurrentIndexing;
-    private final Set<String> ensuredCollections = Collections.synchronizedSet(new HashSet<>());
-    private final Object collectionLock = new Object();
+    private final int pageSize;
+    private final int maxReportedFailures;
+    private final String nodeId;
+    private final Duration leaseDuration;
+    private final int maxAttempts;
+    private final Duration baseRetryDelay;
+    private final Duration maxRetryDelay;
+    private final Duration pendingPollInterval;
+    private final Set<UUID> leasedAssets = ConcurrentHashMap.newKeySet();
 
     public FaceIndexingService(
-            RekognitionClient rekognitionClient,
+            FaceMatchingEngine faceMatching,
             FaceMetadataRepository metadataRepository,
-            PhotoAssetRepository photoAssetRepository,
+            PhotoAssetBulkRepository bulkRepository,
             EventRepository eventRepository,
+            PhotoAssetStatusWriter statusWriter,
+            RekognitionCallLimiter callLimiter,
+            IndexingFairScheduler fairScheduler,
+            FaceIndexGenerations indexGenerations,
+            EventFaceMetadataCache metadataCache,
+            SelfieMatchService selfieMatchService,
             @Value("${aws.s3.bucket:}") String bucket,
-            @Value("${aws.rekognition.index-faces.max-concurrency:5}") int maxConcurrentIndexing
+            @Value("${aws.rekognition.index-faces.max-concurrency:64}") int maxConcurrentIndexing,
+            @Value("${app.indexing.page-size:200}") int pageSize,
+            @Value("${app.indexing.max-reported-failures:100}") int maxReportedFailures,
+            @Value("${app.indexing.node-id:}") String nodeId,
+            @Value("${app.indexing.lease-seconds:600}") long leaseSeconds,
+            @Value("${app.indexing.retry.max-attempts:6}") int maxAttempts,
+            @Value("${app.indexing.retry.base-delay-seconds:30}") long baseRetryDelaySeconds,
+            @Value("${app.indexing.retry.max-delay-seconds:3600}") long maxRetryDelaySeconds,
+            @Value("${app.indexing.pending-poll-interval-millis:5000}") long pendingPollIntervalMillis
     ) {
-        this.rekognitionClient = Objects.requireNonNull(rekognitionClient, "rekognitionClient");
+        this.faceMatching = Objects.requireNonNull(faceMatching, "faceMatching");
         this.metadataRepository = Objects.requireNonNull(metadataRepository, "metadataRepository");
-        this.photoAssetRepository = Objects.requireNonNull(photoAssetRepository, "photoAssetRepository");
+        this.bulkRepository = Objects.requireNonNull(bulkRepository, "bulkRepository");
         this.eventRepository = Objects.requireNonNull(eventRepository, "eventRepository");
+        this.statusWriter = Objects.requireNonNull(statusWriter, "statusWriter");
+        this.callLimiter = Objects.requireNonNull(callLimiter, "callLimiter");
+        this.fairScheduler = Objects.requireNonNull(fairScheduler, "fairScheduler");
+        this.indexGenerations = Objects.requireNonNull(indexGenerations, "indexGenerations");
+        this.metadataCache = Objects.requireNonNull(metadataCache, "metadataCache");
+        this.selfieMatchService = Objects.requireNonNull(selfieMatchService, "selfieMatchService");
         this.bucket = bucket;
         this.maxConcurrentIndexing = Math.max(1, maxConcurrentIndexing);
+        this.pageSize = Math.max(1, pageSize);
+        this.maxReportedFailures = Math.max(0, maxReportedFailures);
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId.trim();
+        this.leaseDuration = Duration.ofSeconds(Math.max(30L, leaseSeconds));
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseRetryDelay = Duration.ofSeconds(Math.max(1L, baseRetryDelaySeconds));
+        this.maxRetryDelay = Duration.ofSeconds(Math.max(baseRetryDelaySeconds, maxRetryDelaySeconds));
+        this.pendingPollInterval = Duration.ofMillis(Math.max(100L, pendingPollIntervalMillis));
     }
 
     public IndexingReport indexUnindexedPhotoAssets(UUID eventId) {
-        log.info("Starting indexing of unindexed photos for event {}", eventId);
+        return indexUnindexedPhotoAssets(eventId, progress -> log.info(
+                "Indexing progress for event {}: scheduled={}, indexed={}, failed={}, faces={}",
+                progress.eventId(), progress.scheduledImages(), progress.successfullyIndexedImages(),
+                progress.failedImages(), progress.totalFaces()));
+    }
+
+    /**
+     * Indexes the unindexed assets of the event. Assets are pulled as leased batches, so any number of nodes can run
+     * this for the same event at once; batches leased by a node that dies become claimable again when the lease expires.
+     * Returns only once no unindexed asset is left, so batches still leased by other nodes are waited for (and taken
+     * over if their lease runs out) rather than counted as done.
+     */
+    public IndexingReport indexUnindexedPhotoAssets(UUID eventId, IndexingProgressListener progressListener) {
+        log.info("Starting indexing of unindexed photos for event {} on node {}", eventId, nodeId);
         if (eventId == null) {
             throw new IllegalArgumentException("eventId must not be null");
         }
+        Objects.requireNonNull(progressListener, "progressListener");
         Event event = eventRepository.findById(eventId).orElseThrow(
                 () -> new IllegalArgumentException("Invalid eventId: " + eventId));
         String collectionId = event.getVectorCollectionId();
-        ensureCollectionExists(collectionId);
-        List<PhotoAsset> assets = photoAssetRepository.findByEventIdAndIndexStatusIsNull(eventId);
-
-        int requested = assets.size();
-        int successful = 0;
-        int totalFaces = 0;
-        Map<String, Integer> facesPerImage = new LinkedHashMap<>();
-        List<String> failedKeys = new ArrayList<>();
-
-        Semaphore permits = new Semaphore(maxConcurrentIndexing);
-        List<StructuredTaskScope.Subtask<AssetIndexResult>> subtasks = new ArrayList<>();
-
-        try (var scope = new StructuredTaskScope<AssetIndexResult>()) {
-            for (PhotoAsset asset : assets) {
-                UUID assetId = asset.getId();
-                String key = asset.getObjectKey();
-                subtasks.add(scope.fork(() -> {
-                    permits.acquire();
-                    try {
-                        return indexSingleAsset(collectionId, eventId, assetId, key);
-                    } finally {
-                        permits.release();
+        faceMatching.ensureCollection(collectionId);
+        IndexingPriorityClass priorityClass = fairScheduler.classify(event);
+
+        Semaphore window = new Semaphore(maxConcurrentIndexing);
+        UUID highestClaimed = null;
+        int scheduled = 0;
+
+        // Each asset is forked only once a window permit is free, so neither the number of leased assets nor the
+        // number of live subtasks grows with the size of the event. The window only caps this run; the fair scheduler
+        // and the shared call limiter decide how many of these actually reach Rekognition at once.
+        try (var scope = new IndexingScope(maxReportedFailures)) {
+            while (true) {
+                List<ClaimedPhotoAsset> batch = bulkRepository.claimUnindexed(eventId, nodeId, leaseDuration, pageSize);
+                if (batch.isEmpty()) {
+                    if (bulkRepository.countUnindexedElsewhere(eventId, nodeId) == 0) {
+                        break;
                     }
-                }));
+                    // Leased by another worker: keep reporting progress (the job heartbeat) and poll again.
+                    progressListener.onProgress(scope.progress(eventId, scheduled, highestClaimed));
+                    Thread.sleep(pendingPollInterval.toMillis());
+                    continue;
+                }
+                forkAll(scope, window, collectionId, eventId, priorityClass, batch);
+                scheduled += batch.size();
+                for (ClaimedPhotoAsset asset : batch) {
+                    if (highestClaimed == null || DATABASE_UUID_ORDER.compare(asset.id(), highestClaimed) > 0) {
+                        highestClaimed = asset.id();
+                    }
+                }
+                progressListener.onProgress(scope.progress(eventId, scheduled, highestClaimed));
             }
             scope.join();
+
+            IndexingReport report = scope.report(scheduled);
+            statusWriter.flush();
+            progressListener.onProgress(scope.progress(eventId, scheduled, highestClaimed));
+            log.info("Finished indexing of unindexed photos for event {}: {}/{} images indexed ({} failed)",
+                    eventId, report.successfullyIndexedImages(), report.requestedImages(), report.failedImageCount());
+            return report;
         } catch (InterruptedException ie) {
             Thread.currentThread().interrupt();
             throw new IllegalStateException("Indexing interrupted", ie);
+        } finally {
+            statusWriter.flush();
         }
+    }
+
+    /**
+     * Indexes the given assets of the event right away, skipping any that are already indexed or leased elsewhere.
+     */
+    public IndexingReport indexAssets(UUID eventId, Collection<UUID> assetIds) {
+        if (eventId == null) {
+            throw new IllegalArgumentException("eventId must not be null");
+        }
+        return indexClaimed(eventId, bulkRepository.claimByIds(eventId, assetIds, nodeId, leaseDuration));
+    }
+
+    /**
+     * Leases up to {@code limit} assets whose retry is due. The leases are kept alive until
+     * {@link #indexDueRetries} has run for the returned assets, or {@link #releaseDueRetries} gives them up.
+     */
+    public List<ClaimedPhotoAsset> claimDueRetries(int limit) {
+        List<ClaimedPhotoAsset> due = bulkRepository.claimDueRetries(nodeId, leaseDuration, limit);
+        for (ClaimedPhotoAsset asset : due) {
+            leasedAssets.add(asset.id());
+        }
+        return due;
+    }
+
+    /**
+     * Indexes assets claimed by {@link #claimDueRetries}, grouped by event.
+     */
+    public void indexDueRetries(List<ClaimedPhotoAsset> due) {
+        Map<UUID, List<ClaimedPhotoAsset>> byEvent = new LinkedHashMap<>();
+        for (ClaimedPhotoAsset asset : due) {
+            byEvent.computeIfAbsent(asset.eventId(), id -> new ArrayList<>()).add(asset);
+        }
+        try {
+            byEvent.forEach((eventId, claimed) -> {
+                try {
+                    indexClaimed(eventId, claimed);
+                } catch (RuntimeException e) {
+                    log.error("Retrying assets of event {} failed: {}", eventId, e.getMessage());
+                }
+            });
+        } finally {
+            releaseDueRetries(due);
+        }
+    }
 
-        for (StructuredTaskScope.Subtask<AssetIndexResult> subtask : subtasks) {
-            if (subtask.state() != StructuredTaskScope.Subtask.State.SUCCESS) {
-                continue;
+    /**
+     * Stops renewing the leases of claimed retries, which are claimed again once the leases expire.
+     */
+    public void releaseDueRetries(List<ClaimedPhotoAsset> due) {
+        for (ClaimedPhotoAsset asset : due) {
+            leasedAssets.remove(asset.id());
+        }
+    }
+
+    private IndexingReport indexClaimed(UUID eventId, List<ClaimedPhotoAsset> claimed) {
+        if (claimed.isEmpty()) {
+            return new IndexingReport(0, 0, 0, 0, List.of());
+        }
+        Event event = eventRepository.findById(eventId).orElseThrow(
+                () -> new IllegalArgumentException("Invalid eventId: " + eventId));
+        String collectionId = event.getVectorCollectionId();
+        faceMatching.ensureCollection(collectionId);
+        IndexingPriorityClass priorityClass = fairScheduler.classify(event);
+
+        Semaphore window = new Semaphore(maxConcurrentIndexing);
+        try (var scope = new IndexingScope(maxReportedFailures)) {
+            forkAll(scope, window, collectionId, eventId, priorityClass, claimed);
+            scope.join();
+            IndexingReport report = scope.report(claimed.size());
+            log.debug("Indexed {}/{} claimed assets for event {}",
+                    report.successfullyIndexedImages(), report.requestedImages(), eventId);
+            return report;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Indexing interrupted", ie);
+        } finally {
+            statusWriter.flush();
+        }
+    }
+
+    private void forkAll(
+            IndexingScope scope,
+            Semaphore window,
+            String collectionId,
+            UUID eventId,
+            IndexingPriorityClass priorityClass,
+            List<ClaimedPhotoAsset> assets
+    ) throws InterruptedException {
+        for (ClaimedPhotoAsset asset : assets) {
+            leasedAssets.add(asset.id());
+        }
+        int forked = 0;
+        try {
+            for (ClaimedPhotoAsset asset : assets) {
+                window.acquire();
+                scope.fork(() -> {
+                    try {
+                        return indexSingleAsset(collectionId, eventId, priorityClass, asset);
+                    } finally {
+                        leasedAssets.remove(asset.id());
+                        window.release();
+                    }
+                });
+                forked++;
             }
-            AssetIndexResult result = subtask.get();
-            if (result.success()) {
-                successful++;
-                totalFaces += result.facesIndexed();
-                facesPerImage.put(result.key(), result.facesIndexed());
-            } else {
-                failedKeys.add(result.key());
+        } finally {
+            for (int i = forked; i < assets.size(); i++) {
+                leasedAssets.remove(assets.get(i).id());
             }
         }
-        log.info("Finished indexing of unindexed photos for event {}: {}/{} images indexed ({} failed)",
-                eventId, successful, requested, failedKeys.size());
-        return new IndexingReport(
-                requested,
-                successful,
-                totalFaces,
-                Map.copyOf(facesPerImage),
-                List.copyOf(failedKeys)
-        );
-    }
-
-    private IndexFacesResponse indexFacesForImage(String collectionId, String key) {
-        IndexFacesRequest request = IndexFacesRequest.builder()
-                .collectionId(collectionId)
-                .externalImageId(buildExternalImageId(key))
-                .qualityFilter(QualityFilter.AUTO)
-                .image(Image.builder()
-                        .s3Object(S3Object.builder()
-                                .bucket(bucket)
-                                .name(key)
-                                .build())
-                        .build())
-                .build();
-        return rekognitionClient.indexFaces(request);
-    }
-
-    private void storeMetadata(String collectionId, String eventId, String key, FaceRecord record) {
-        if (record == null || record.face() == null) {
+    }
+
+    /**
+     * Keeps the leases of assets that are waiting for a window permit or an indexing turn from running out, so a slow
+     * batch is not claimed and indexed a second time by another node.
+     */
+    @Scheduled(fixedDelayString = "${app.indexing.lease-renew-interval-millis:60000}",
+            initialDelayString = "${app.indexing.lease-renew-interval-millis:60000}")
+    public void renewLeases() {
+        if (leasedAssets.isEmpty()) {
             return;
         }
-        metadataRepository.saveFaceRecord(
-                collectionId,
-                record.face().faceId(),
-                eventId,
-                bucket,
-                key,
-                record.face().imageId(),
-                record.face().boundingBox(),
-                record.face().confidence()
-        );
+        int renewed = bulkRepository.renewLeases(List.copyOf(leasedAssets), nodeId, leaseDuration);
+        log.debug("Renewed {} asset leases on node {}", renewed, nodeId);
     }
 
-    private void ensureCollectionExists(String collectionId) {
-        if (ensuredCollections.contains(collectionId)) {
-            return;
+    private List<IndexedFace> indexFacesForImage(
+            String collectionId,
+            UUID eventId,
+            IndexingPriorityClass priorityClass,
+            String key
+    ) {
+        try {
+            fairScheduler.acquire(eventId, priorityClass);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an indexing turn", ie);
         }
-        synchronized (collectionLock) {
-            if (ensuredCollections.contains(collectionId)) {
-                return;
-            }
-            try {
-                rekognitionClient.describeCollection(
-                        DescribeCollectionRequest.builder()
-                                .collectionId(collectionId)
-                                .build()
-                );
-                log.debug("Rekognition collection '{}' already exists", collectionId);
-            } catch (ResourceNotFoundException notFound) {
-                log.info("Rekognition collection '{}' not found, creating it", collectionId);
-                rekognitionClient.createCollection(CreateCollectionRequest.builder()
-                        .collectionId(collectionId)
-                        .build());
-            }
-            ensuredCollections.add(collectionId);
+        try {
+            return callLimiter.call(Priority.BACKGROUND,
+                    () -> faceMatching.indexFaces(collectionId, bucket, key, buildExternalImageId(key)));
+        } finally {
+            fairScheduler.release();
+        }
+    }
+
+    private void storeMetadata(String collectionId, UUID eventId, String key, List<IndexedFace> faces) {
+        List<FaceMetadataRecord> metadata = new ArrayList<>(faces.size());
+        for (IndexedFace face : faces) {
+            metadata.add(new FaceMetadataRecord(
+                    face.faceId(),
+                    collectionId,
+                    eventId.toString(),
+                    bucket,
+                    key,
+                    face.imageId(),
+                    face.boundingBox(),
+                    face.confidence()
+            ));
         }
+        metadataRepository.saveFaceRecords(metadata);
+        metadataCache.record(eventId, metadata);
     }
 
     private static String buildExternalImageId(String key) {
         return key.replaceAll("[^a-zA-Z0-9_.\\-:]", ":");
     }
 
-    private AssetIndexResult indexSingleAsset(String collectionId, UUID eventId, UUID assetId, String rawKey) {
+    private AssetIndexResult indexSingleAsset(
+            String collectionId,
+            UUID eventId,
+            IndexingPriorityClass priorityClass,
+            ClaimedPhotoAsset asset
+    ) {
+        UUID assetId = asset.id();
+        String rawKey = asset.objectKey();
         String key = normalizeKey(rawKey);
         if (key == null || key.isBlank()) {
             log.warn("Skipping blank S3 key for asset={}", assetId);
-            markAssetFailed(assetId);
+            statusWriter.markFailed(assetId, nodeId, "Blank S3 key");
             return new AssetIndexResult(rawKey == null ? "<null>" : rawKey, 0, false);
         }
 
         try {
-            IndexFacesResponse response = indexFacesForImage(collectionId, key);
-            List<FaceRecord> faceRecords = response.faceRecords();
-            int facesIndexed = faceRecords == null ? 0 : faceRecords.size();
-            if (faceRecords != null) {
-                for (FaceRecord record : faceRecords) {
-                    storeMetadata(collectionId, eventId.toString(), key, record);
+            List<IndexedFace> faces = indexFacesForImage(collectionId, eventId, priorityClass, key);
+            int facesIndexed = faces.size();
+            if (facesIndexed > 0) {
+                try {
+                    storeMetadata(collectionId, eventId, key, faces);
+                } catch (RuntimeException e) {
+                    log.error("Failed to store face metadata for event={} key={}: {}", eventId, key, e.getMessage());
+                    discardIndexedFaces(collectionId, key, faces);
+                    // IllegalStateException: a DynamoDB batch that exhausted its own retries
+                    markAssetFailed(asset, e, isTransient(e) || e instanceof IllegalStateException);
+                    return new AssetIndexResult(key, 0, false);
                 }
+                indexGenerations.advance(eventId);
+                selfieMatchService.matchNewFaces(eventId, key, faces);
             }
-            markAssetSuccess(assetId);
-            log.debug("Indexed {} faces for event={} key={} (model v{})", facesIndexed, eventId, key, response.faceModelVersion());
+            statusWriter.markSuccess(assetId, nodeId, Instant.now());
+            log.debug("Indexed {} faces for event={} key={}", facesIndexed, eventId, key);
             return new AssetIndexResult(key, facesIndexed, true);
         } catch (SdkException e) {
             log.error("Failed to index faces for event={} key={}: {}", eventId, key, e.getMessage());
-            markAssetFailed(assetId);
+            markAssetFailed(asset, e, isTransient(e));
             return new AssetIndexResult(key, 0, false);
         } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted()) {
+                // Shutdown or cancelled run: leave the asset leased, it is claimed again once the lease expires.
+                log.info("Indexing of event={} key={} interrupted", eventId, key);
+                return new AssetIndexResult(key, 0, false);
+            }
             log.error("Unexpected error indexing faces for event={} key={}: {}", eventId, key, e.getMessage(), e);
-            markAssetFailed(assetId);
+            markAssetFailed(asset, e, isTransient(e));
             return new AssetIndexResult(key, 0, false);
         }
     }
 
-    private void markAssetSuccess(UUID assetId) {
-        photoAssetRepository.findById(assetId).ifPresent(asset -> {
-            asset.setIndexStatus("SUCCESS");
-            asset.setIndexedAt(Instant.now());
-            photoAssetRepository.save(asset);
-        });
+    /**
+     * Removes faces that made it into the collection but not into the metadata table, so that retrying the asset does
+     * not index them a second time. Faces that cannot be removed stay behind without metadata, which searches skip.
+     */
+    private void discardIndexedFaces(String collectionId, String key, List<IndexedFace> faces) {
+        List<String> faceIds = faces.stream().map(IndexedFace::faceId).toList();
+        try {
+            callLimiter.call(Priority.BACKGROUND, () -> {
+                faceMatching.deleteFaces(collectionId, faceIds);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to remove {} faces of key={} without metadata: {}", faceIds.size(), key, e.getMessage());
+        }
+    }
+
+    private void markAssetFailed(ClaimedPhotoAsset asset, Exception cause, boolean transientFailure) {
+        int attempt = asset.previousAttempts() + 1;
+        String error = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+        if (transientFailure && attempt < maxAttempts) {
+            Instant nextAttemptAt = Instant.now().plus(retryDelay(attempt));
+            log.info("Scheduling retry {} of asset={} at {}", attempt, asset.id(), nextAttemptAt);
+            statusWriter.markRetry(asset.id(), nodeId, nextAttemptAt, error);
+        } else {
+            statusWriter.markFailed(asset.id(), nodeId, error);
+        }
+    }
+
+    /**
+     * Exponential backoff with jitter: a random delay between half and all of {@code base * 2^(attempt-1)}, capped.
+     */
+    private Duration retryDelay(int attempt) {
+        long ceiling = Math.min(maxRetryDelay.toMillis(), baseRetryDelay.toMillis() << Math.min(attempt - 1, 20));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1));
     }
 
-    private void markAssetFailed(UUID assetId) {
-        photoAssetRepository.findById(assetId).ifPresent(asset -> {
-            asset.setIndexStatus("FAILED");
-            photoAssetRepository.save(asset);
-        });
+    private static boolean isTransient(Exception e) {
+        if (e instanceof InvalidImageFormatException
+                || e instanceof ImageTooLargeException
+                || e instanceof InvalidS3ObjectException
+                || e instanceof InvalidParameterException
+                || e instanceof AccessDeniedException) {
+            return false;
+        }
+        if (e instanceof SdkClientException) {
+            return true;
+        }
+        if (e instanceof AwsServiceException ase) {
+            return RekognitionCallLimiter.isThrottling(ase) || ase.statusCode() >= 500;
+        }
+        return e instanceof UncheckedIOException || e instanceof IOException;
     }
 
     private String normalizeKey(String key) {
@@ -242,13 +470,68 @@ public class FaceIndexingService {
         return trimmed.startsWith("/") ? trimmed.substring(1) : trimmed;
     }
 
+    @FunctionalInterface
+    public interface IndexingProgressListener {
+        void onProgress(IndexingProgress progress);
+    }
+
+    public record IndexingProgress(
+            UUID eventId,
+            int scheduledImages,
+            int successfullyIndexedImages,
+            int failedImages,
+            int totalFaces,
+            UUID cursor
+    ) { }
+
     public record IndexingReport(
             int requestedImages,
             int successfullyIndexedImages,
             int totalFaces,
-            Map<String, Integer> facesPerImage,
+            int failedImageCount,
             List<String> failedImages
     ) { }
 
     private record AssetIndexResult(String key, int facesIndexed, boolean success) { }
+
+    /**
+     * Aggregates subtask results as they complete instead of holding on to every subtask until the end.
+     */
+    private static final class IndexingScope extends StructuredTaskScope<AssetIndexResult> {
+
+        private final int maxReportedFailures;
+        private final AtomicInteger successful = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger totalFaces = new AtomicInteger();
+        private final Queue<String> failedKeys = new ConcurrentLinkedQueue<>();
+
+        private IndexingScope(int maxReportedFailures) {
+            this.maxReportedFailures = maxReportedFailures;
+        }
+
+        @Override
+        protected void handleComplete(Subtask<? extends AssetIndexResult> subtask) {
+            if (subtask.state() != Subtask.State.SUCCESS) {
+                failed.incrementAndGet();
+                return;
+            }
+            AssetIndexResult result = subtask.get();
+            if (result.success()) {
+                successful.incrementAndGet();
+                totalFaces.addAndGet(result.facesIndexed());
+            } else {
+                if (failed.incrementAndGet() <= maxReportedFailures) {
+                    failedKeys.add(result.key());
+                }
+            }
+        }
+
+        private IndexingProgress progress(UUID eventId, int scheduled, UUID cursor) {
+            return new IndexingProgress(eventId, scheduled, successful.get(), failed.get(), totalFaces.get(), cursor);
+        }
+
+        private IndexingReport report(int requested) {
+            return new IndexingReport(requested, successful.get(), totalFaces.get(), failed.get(), List.copyOf(failedKeys));
+        }
+    }
 }
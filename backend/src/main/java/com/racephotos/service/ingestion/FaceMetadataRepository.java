@@ -4,29 +4,57 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
 import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
 import software.amazon.awssdk.services.rekognition.model.BoundingBox;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 @Repository
 public class FaceMetadataRepository {
 
+    private static final int MAX_BATCH_WRITE_ITEMS = 25;
+    private static final int MAX_BATCH_GET_KEYS = 100;
+
     private final DynamoDbClient dynamoDbClient;
     private final String tableName;
+    private final String eventIndexName;
+    private final int maxBatchAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
 
     public FaceMetadataRepository(
             DynamoDbClient dynamoDbClient,
-            @Value("${aws.dynamodb.table:}") String tableName
+            @Value("${aws.dynamodb.table:}") String tableName,
+            @Value("${aws.dynamodb.event-index:eventId-index}") String eventIndexName,
+            @Value("${aws.dynamodb.batch.max-attempts:8}") int maxBatchAttempts,
+            @Value("${aws.dynamodb.batch.base-backoff-millis:50}") long baseBackoffMillis,
+            @Value("${aws.dynamodb.batch.max-backoff-millis:2000}") long maxBackoffMillis
     ) {
         this.dynamoDbClient = Objects.requireNonNull(dynamoDbClient, "dynamoDbClient");
         this.tableName = tableName;
+        this.eventIndexName = eventIndexName;
+        this.maxBatchAttempts = Math.max(1, maxBatchAttempts);
+        this.baseBackoffMillis = Math.max(1L, baseBackoffMillis);
+        this.maxBackoffMillis = Math.max(this.baseBackoffMillis, maxBackoffMillis);
     }
 
     public void saveFaceRecord(
@@ -39,41 +67,57 @@ public class FaceMetadataRepository {
             BoundingBox boundingBox,
             Float confidence
     ) {
-        if (tableName == null || tableName.isBlank()) {
-            throw new IllegalStateException("DynamoDB table name (aws.dynamodb.table) is not configured");
-        }
-
-        Map<String, AttributeValue> item = new HashMap<>();
-        item.put("faceId", AttributeValue.builder().s(faceId).build());
-        item.put("collectionId", AttributeValue.builder().s(collectionId).build());
-        item.put("eventId", AttributeValue.builder().s(eventId).build());
-        item.put("bucket", AttributeValue.builder().s(bucket).build());
-        item.put("photoKey", AttributeValue.builder().s(photoKey).build());
-        item.put("indexedAt", AttributeValue.builder().s(Instant.now().toString()).build());
+        requireTableName();
+        FaceMetadataRecord record = new FaceMetadataRecord(
+                faceId, collectionId, eventId, bucket, photoKey, imageId, boundingBox, confidence);
+        dynamoDbClient.putItem(PutItemRequest.builder()
+                .tableName(tableName)
+                .item(buildItem(record, Instant.now().toString()))
+                .build());
+    }
 
-        if (imageId != null && !imageId.isBlank()) {
-            item.put("imageId", AttributeValue.builder().s(imageId).build());
+    /**
+     * Writes the records with BatchWriteItem in chunks of 25, retrying unprocessed items with exponential backoff.
+     */
+    public void saveFaceRecords(List<FaceMetadataRecord> records) {
+        requireTableName();
+        if (records == null || records.isEmpty()) {
+            return;
         }
-
-        if (confidence != null) {
-            item.put("confidence", AttributeValue.builder().n(formatNumber(confidence)).build());
+        String indexedAt = Instant.now().toString();
+        for (int from = 0; from < records.size(); from += MAX_BATCH_WRITE_ITEMS) {
+            List<WriteRequest> writes = new ArrayList<>(MAX_BATCH_WRITE_ITEMS);
+            for (FaceMetadataRecord record : records.subList(from, Math.min(from + MAX_BATCH_WRITE_ITEMS, records.size()))) {
+                writes.add(WriteRequest.builder()
+                        .putRequest(PutRequest.builder().item(buildItem(record, indexedAt)).build())
+                        .build());
+            }
+            writeBatch(writes);
         }
+    }
 
-        Map<String, AttributeValue> bbox = buildBoundingBoxAttribute(boundingBox);
-        if (!bbox.isEmpty()) {
-            item.put("boundingBox", AttributeValue.builder().m(bbox).build());
+    private void writeBatch(List<WriteRequest> writes) {
+        Map<String, List<WriteRequest>> pending = Map.of(tableName, writes);
+        for (int attempt = 1; ; attempt++) {
+            BatchWriteItemResponse response = dynamoDbClient.batchWriteItem(BatchWriteItemRequest.builder()
+                    .requestItems(pending)
+                    .build());
+            Map<String, List<WriteRequest>> unprocessed = response.unprocessedItems();
+            if (unprocessed == null || unprocessed.isEmpty()) {
+                return;
+            }
+            if (attempt >= maxBatchAttempts) {
+                int remaining = unprocessed.values().stream().mapToInt(List::size).sum();
+                throw new IllegalStateException("DynamoDB left " + remaining + " face records unprocessed after "
+                        + attempt + " attempts");
+            }
+            backoff(attempt);
+            pending = unprocessed;
         }
-
-        dynamoDbClient.putItem(PutItemRequest.builder()
-                .tableName(tableName)
-                .item(item)
-                .build());
     }
 
     public Optional<FaceMetadataRecord> findByFaceId(String faceId) {
-        if (tableName == null || tableName.isBlank()) {
-            throw new IllegalStateException("DynamoDB table name (aws.dynamodb.table) is not configured");
-        }
+        requireTableName();
         if (faceId == null || faceId.isBlank()) {
             return Optional.empty();
         }
@@ -95,6 +139,128 @@ public class FaceMetadataRepository {
         return Optional.of(mapItem(item));
     }
 
+    /**
+     * Looks the faces up with BatchGetItem in chunks of 100 keys; ids without a stored record are absent from the result.
+     */
+    public Map<String, FaceMetadataRecord> findByFaceIds(Collection<String> faceIds) {
+        requireTableName();
+        if (faceIds == null || faceIds.isEmpty()) {
+            return Map.of();
+        }
+        List<String> distinctIds = faceIds.stream()
+                .filter(id -> id != null && !id.isBlank())
+                .distinct()
+                .toList();
+
+        Map<String, FaceMetadataRecord> found = new HashMap<>();
+        for (int from = 0; from < distinctIds.size(); from += MAX_BATCH_GET_KEYS) {
+            List<Map<String, AttributeValue>> keys = new ArrayList<>(MAX_BATCH_GET_KEYS);
+            for (String faceId : distinctIds.subList(from, Math.min(from + MAX_BATCH_GET_KEYS, distinctIds.size()))) {
+                keys.add(Map.of("faceId", AttributeValue.builder().s(faceId).build()));
+            }
+            for (Map<String, AttributeValue> item : readBatch(keys)) {
+                FaceMetadataRecord record = mapItem(item);
+                found.put(record.faceId(), record);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Whether {@link #forEachByEventId} is available, i.e. an {@code aws.dynamodb.event-index} GSI is configured.
+     */
+    public boolean supportsEventQueries() {
+        return eventIndexName != null && !eventIndexName.isBlank();
+    }
+
+    /**
+     * Streams every face record of the event by querying the {@code aws.dynamodb.event-index} GSI. There is no scan
+     * fallback: reading a whole event this way would read the whole table.
+     */
+    public void forEachByEventId(String eventId, Consumer<FaceMetadataRecord> consumer) {
+        requireTableName();
+        if (!supportsEventQueries()) {
+            throw new IllegalStateException("DynamoDB event index (aws.dynamodb.event-index) is not configured");
+        }
+        Map<String, AttributeValue> values = Map.of(":eventId", AttributeValue.builder().s(eventId).build());
+        Iterable<Map<String, AttributeValue>> items = dynamoDbClient.queryPaginator(QueryRequest.builder()
+                .tableName(tableName)
+                .indexName(eventIndexName)
+                .keyConditionExpression("eventId = :eventId")
+                .expressionAttributeValues(values)
+                .build()).items();
+        for (Map<String, AttributeValue> item : items) {
+            consumer.accept(mapItem(item));
+        }
+    }
+
+    private List<Map<String, AttributeValue>> readBatch(List<Map<String, AttributeValue>> keys) {
+        List<Map<String, AttributeValue>> items = new ArrayList<>(keys.size());
+        Map<String, KeysAndAttributes> pending = Map.of(tableName, KeysAndAttributes.builder().keys(keys).build());
+        for (int attempt = 1; ; attempt++) {
+            BatchGetItemResponse response = dynamoDbClient.batchGetItem(BatchGetItemRequest.builder()
+                    .requestItems(pending)
+                    .build());
+            List<Map<String, AttributeValue>> returned = response.responses() == null
+                    ? null
+                    : response.responses().get(tableName);
+            if (returned != null) {
+                items.addAll(returned);
+            }
+            Map<String, KeysAndAttributes> unprocessed = response.unprocessedKeys();
+            if (unprocessed == null || unprocessed.isEmpty()) {
+                return items;
+            }
+            if (attempt >= maxBatchAttempts) {
+                int remaining = unprocessed.values().stream().mapToInt(k -> k.keys().size()).sum();
+                throw new IllegalStateException("DynamoDB left " + remaining + " face lookups unprocessed after "
+                        + attempt + " attempts");
+            }
+            backoff(attempt);
+            pending = unprocessed;
+        }
+    }
+
+    private void requireTableName() {
+        if (tableName == null || tableName.isBlank()) {
+            throw new IllegalStateException("DynamoDB table name (aws.dynamodb.table) is not configured");
+        }
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 16));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1));
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying DynamoDB batch", ie);
+        }
+    }
+
+    private static Map<String, AttributeValue> buildItem(FaceMetadataRecord record, String indexedAt) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("faceId", AttributeValue.builder().s(record.faceId()).build());
+        item.put("collectionId", AttributeValue.builder().s(record.collectionId()).build());
+        item.put("eventId", AttributeValue.builder().s(record.eventId()).build());
+        item.put("bucket", AttributeValue.builder().s(record.bucket()).build());
+        item.put("photoKey", AttributeValue.builder().s(record.photoKey()).build());
+        item.put("indexedAt", AttributeValue.builder().s(indexedAt).build());
+
+        if (record.imageId() != null && !record.imageId().isBlank()) {
+            item.put("imageId", AttributeValue.builder().s(record.imageId()).build());
+        }
+
+        if (record.confidence() != null) {
+            item.put("confidence", AttributeValue.builder().n(formatNumber(record.confidence())).build());
+        }
+
+        Map<String, AttributeValue> bbox = buildBoundingBoxAttribute(record.boundingBox());
+        if (!bbox.isEmpty()) {
+            item.put("boundingBox", AttributeValue.builder().m(bbox).build());
+        }
+        return item;
+    }
+
     private static FaceMetadataRecord mapItem(Map<String, AttributeValue> item) {
         String faceId = getString(item, "faceId");
         String collectionId = getString(item, "collectionId");
@@ -0,0 +1,172 @@
+package com.racephotos.service.ingestion;
+
+import com.racephotos.domain.event.Event;
+import com.racephotos.service.rekognition.RekognitionCallLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Divides the background share of Rekognition capacity between events. Every event with waiting work has its own FIFO
+ * queue, and turns are granted by stride scheduling: the queue with the smallest virtual pass goes next and its pass
+ * advances by {@code 1 / weight}. LIVE events therefore get proportionally more turns than RECENT or BACKFILL ones,
+ * while no event with waiting work is starved.
+ */
+@Component
+public class IndexingFairScheduler {
+
+    private final RekognitionCallLimiter callLimiter;
+    private final Map<IndexingPriorityClass, Double> weights = new EnumMap<>(IndexingPriorityClass.class);
+    private final Duration liveMargin;
+    private final Duration recentWindow;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<UUID, EventQueue> queues = new HashMap<>();
+    private final Map<IndexingPriorityClass, Integer> waitingByClass = new EnumMap<>(IndexingPriorityClass.class);
+    private double virtualTime;
+    private int granted;
+
+    public IndexingFairScheduler(
+            RekognitionCallLimiter callLimiter,
+            MeterRegistry meterRegistry,
+            @Value("${app.indexing.fairness.weight.live:8}") double liveWeight,
+            @Value("${app.indexing.fairness.weight.recent:3}") double recentWeight,
+            @Value("${app.indexing.fairness.weight.backfill:1}") double backfillWeight,
+            @Value("${app.indexing.fairness.live-margin-hours:6}") long liveMarginHours,
+            @Value("${app.indexing.fairness.recent-window-days:7}") long recentWindowDays
+    ) {
+        this.callLimiter = Objects.requireNonNull(callLimiter, "callLimiter");
+        Objects.requireNonNull(meterRegistry, "meterRegistry");
+        this.weights.put(IndexingPriorityClass.LIVE, Math.max(0.01, liveWeight));
+        this.weights.put(IndexingPriorityClass.RECENT, Math.max(0.01, recentWeight));
+        this.weights.put(IndexingPriorityClass.BACKFILL, Math.max(0.01, backfillWeight));
+        this.liveMargin = Duration.ofHours(Math.max(0L, liveMarginHours));
+        this.recentWindow = Duration.ofDays(Math.max(0L, recentWindowDays));
+
+        for (IndexingPriorityClass priorityClass : IndexingPriorityClass.values()) {
+            waitingByClass.put(priorityClass, 0);
+            Gauge.builder("indexing.queue.depth", this, scheduler -> scheduler.queueDepth(priorityClass))
+                    .description("Indexing calls waiting for a Rekognition turn")
+                    .tag("class", priorityClass.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    public IndexingPriorityClass classify(Event event) {
+        return IndexingPriorityClass.of(event, Instant.now(), liveMargin, recentWindow);
+    }
+
+    /**
+     * Blocks until the event is granted a turn. Every successful call must be paired with {@link #release()}.
+     */
+    public void acquire(UUID eventId, IndexingPriorityClass priorityClass) throws InterruptedException {
+        lock.lock();
+        try {
+            EventQueue queue = queues.get(eventId);
+            if (queue == null) {
+                queue = new EventQueue(eventId, virtualTime);
+                queues.put(eventId, queue);
+            }
+            queue.priorityClass = priorityClass;
+            Waiter waiter = new Waiter(lock.newCondition(), priorityClass);
+            queue.waiters.add(waiter);
+            waitingByClass.merge(priorityClass, 1, Integer::sum);
+            dispatch();
+            try {
+                while (!waiter.granted) {
+                    waiter.condition.await();
+                }
+            } catch (InterruptedException ie) {
+                if (waiter.granted) {
+                    granted--;
+                    dispatch();
+                } else {
+                    queue.waiters.remove(waiter);
+                    waitingByClass.merge(priorityClass, -1, Integer::sum);
+                    if (queue.waiters.isEmpty()) {
+                        queues.remove(eventId);
+                    }
+                }
+                throw ie;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            granted--;
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queueDepth(IndexingPriorityClass priorityClass) {
+        lock.lock();
+        try {
+            return waitingByClass.getOrDefault(priorityClass, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatch() {
+        int capacity = callLimiter.backgroundCapacity();
+        while (granted < capacity && !queues.isEmpty()) {
+            EventQueue next = null;
+            for (EventQueue queue : queues.values()) {
+                if (next == null || queue.pass < next.pass) {
+                    next = queue;
+                }
+            }
+            Waiter waiter = next.waiters.poll();
+            waiter.granted = true;
+            granted++;
+            waitingByClass.merge(waiter.priorityClass, -1, Integer::sum);
+            virtualTime = next.pass;
+            next.pass += 1.0 / weights.get(next.priorityClass);
+            if (next.waiters.isEmpty()) {
+                queues.remove(next.eventId);
+            }
+            waiter.condition.signal();
+        }
+    }
+
+    private static final class EventQueue {
+        private final UUID eventId;
+        private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        private IndexingPriorityClass priorityClass = IndexingPriorityClass.BACKFILL;
+        private double pass;
+
+        private EventQueue(UUID eventId, double pass) {
+            this.eventId = eventId;
+            this.pass = pass;
+        }
+    }
+
+    private static final class Waiter {
+        private final Condition condition;
+        private final IndexingPriorityClass priorityClass;
+        private boolean granted;
+
+        private Waiter(Condition condition, IndexingPriorityClass priorityClass) {
+            this.condition = condition;
+            this.priorityClass = priorityClass;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.racephotos.service.ingestion;
+
+import com.racephotos.domain.event.Event;
+import com.racephotos.domain.event.EventStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+public enum IndexingPriorityClass {
+    LIVE,
+    RECENT,
+    BACKFILL;
+
+    /**
+     * LIVE while the event is active or within {@code liveMargin} of its start/end, RECENT for upcoming events and
+     * events that ended less than {@code recentWindow} ago, BACKFILL for everything else.
+     */
+    public static IndexingPriorityClass of(Event event, Instant now, Duration liveMargin, Duration recentWindow) {
+        EventStatus status = event.getStatus();
+        if (status == EventStatus.ACTIVE) {
+            return LIVE;
+        }
+        OffsetDateTime start = event.getStartTime();
+        OffsetDateTime end = event.getEndTime() != null ? event.getEndTime() : start;
+        if (start != null && end != null
+                && !now.isBefore(start.toInstant().minus(liveMargin))
+                && !now.isAfter(end.toInstant().plus(liveMargin))) {
+            return LIVE;
+        }
+        if (status == EventStatus.UPCOMING || status == EventStatus.DRAFT) {
+            return RECENT;
+        }
+        if (end != null && now.isBefore(end.toInstant().plus(recentWindow))) {
+            return RECENT;
+        }
+        return BACKFILL;
+    }
+}
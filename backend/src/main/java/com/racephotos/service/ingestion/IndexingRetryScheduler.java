@@ -0,0 +1,111 @@
+package com.racephotos.service.ingestion;
+
+import com.racephotos.domain.photo.ClaimedPhotoAsset;
+import com.racephotos.domain.photo.PhotoAssetBulkRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Re-indexes assets in RETRY state once their backoff has elapsed, and lets admins force a retry of selected keys.
+ * <p>
+ * The scheduled run only claims due assets; indexing them happens on the face indexing executor so the shared
+ * scheduler thread is not held for the length of a retry batch. At most {@code max-batches-per-run} claimed batches
+ * are in flight at a time.
+ */
+@Component
+public class IndexingRetryScheduler {
+
+    private static final Logger log = LogManager.getLogger(IndexingRetryScheduler.class);
+
+    private final FaceIndexingService faceIndexingService;
+    private final PhotoAssetBulkRepository bulkRepository;
+    private final Executor executor;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final AtomicInteger inFlightBatches = new AtomicInteger();
+
+    public IndexingRetryScheduler(
+            FaceIndexingService faceIndexingService,
+            PhotoAssetBulkRepository bulkRepository,
+            @Qualifier("faceIndexingExecutor") Executor executor,
+            @Value("${app.indexing.retry.batch-size:100}") int batchSize,
+            @Value("${app.indexing.retry.max-batches-per-run:10}") int maxBatchesPerRun
+    ) {
+        this.faceIndexingService = Objects.requireNonNull(faceIndexingService, "faceIndexingService");
+        this.bulkRepository = Objects.requireNonNull(bulkRepository, "bulkRepository");
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatchesPerRun = Math.max(1, maxBatchesPerRun);
+    }
+
+    @Scheduled(fixedDelayString = "${app.indexing.retry.poll-interval-millis:10000}")
+    public void retryDueAssets() {
+        int total = 0;
+        while (inFlightBatches.get() < maxBatchesPerRun) {
+            List<ClaimedPhotoAsset> claimed;
+            try {
+                claimed = faceIndexingService.claimDueRetries(batchSize);
+            } catch (RuntimeException e) {
+                log.error("Claiming due assets failed: {}", e.getMessage());
+                break;
+            }
+            if (claimed.isEmpty() || !dispatch(claimed)) {
+                break;
+            }
+            total += claimed.size();
+            if (claimed.size() < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Retrying indexing of {} assets", total);
+        }
+    }
+
+    private boolean dispatch(List<ClaimedPhotoAsset> claimed) {
+        inFlightBatches.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    faceIndexingService.indexDueRetries(claimed);
+                } finally {
+                    inFlightBatches.decrementAndGet();
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            inFlightBatches.decrementAndGet();
+            // The leases run out and the assets are claimed again on a later run.
+            faceIndexingService.releaseDueRetries(claimed);
+            log.error("Could not dispatch {} due assets: {}", claimed.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    public int forceRetry(UUID eventId, Collection<String> objectKeys) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String key : objectKeys) {
+            if (key == null || key.isBlank()) {
+                continue;
+            }
+            String trimmed = key.trim();
+            keys.add(trimmed.startsWith("/") ? trimmed.substring(1) : trimmed);
+        }
+        int rescheduled = bulkRepository.forceRetry(eventId, keys);
+        log.info("Forced retry of {}/{} keys for event {}", rescheduled, keys.size(), eventId);
+        return rescheduled;
+    }
+}
@@ -3,28 +3,31 @@ package com.racephotos.service.ingestion;
 import com.racephotos.domain.event.Event;
 import com.racephotos.domain.event.EventRepository;
 import com.racephotos.domain.photo.PhotoAsset;
-import com.racephotos.domain.photo.PhotoAssetRepository;
+import com.racephotos.domain.photo.PhotoAssetBulkRepository;
 import com.racephotos.domain.photographer.Photographer;
 import com.racephotos.domain.photographer.PhotographerRepository;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.core.exception.SdkException;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
 import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 
+import java.time.DateTimeException;
 import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -39,24 +42,33 @@ public class PhotoAssetIngestionService {
             "datetimeoriginal"
     );
 
-    private final S3Client s3Client;
-    private final PhotoAssetRepository photoAssetRepository;
+    private final S3ObjectMetadataFetcher metadataFetcher;
     private final EventRepository eventRepository;
     private final PhotographerRepository photographerRepository;
+    private final PhotoAssetBulkRepository bulkRepository;
+    private final ExifCaptureTimeExtractor exifExtractor;
+    private final ApplicationEventPublisher eventPublisher;
     private final String defaultBucket;
+    private final int batchSize;
 
     public PhotoAssetIngestionService(
-            S3Client s3Client,
-            PhotoAssetRepository photoAssetRepository,
+            S3ObjectMetadataFetcher metadataFetcher,
             EventRepository eventRepository,
             PhotographerRepository photographerRepository,
-            @Value("${aws.s3.bucket:}") String defaultBucket
+            PhotoAssetBulkRepository bulkRepository,
+            ExifCaptureTimeExtractor exifExtractor,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${aws.s3.bucket:}") String defaultBucket,
+            @Value("${app.ingestion.batch-size:500}") int batchSize
     ) {
-        this.s3Client = Objects.requireNonNull(s3Client, "s3Client");
-        this.photoAssetRepository = Objects.requireNonNull(photoAssetRepository, "photoAssetRepository");
+        this.metadataFetcher = Objects.requireNonNull(metadataFetcher, "metadataFetcher");
         this.eventRepository = Objects.requireNonNull(eventRepository, "eventRepository");
         this.photographerRepository = Objects.requireNonNull(photographerRepository, "photographerRepository");
+        this.bulkRepository = Objects.requireNonNull(bulkRepository, "bulkRepository");
+        this.exifExtractor = Objects.requireNonNull(exifExtractor, "exifExtractor");
+        this.eventPublisher = Objects.requireNonNull(eventPublisher, "eventPublisher");
         this.defaultBucket = defaultBucket;
+        this.batchSize = Math.max(1, batchSize);
     }
 
     public IngestionResult ingestPhotoUpload(PhotoUploadNotification notification) {
@@ -68,46 +80,128 @@ public class PhotoAssetIngestionService {
         Photographer photographer = photographerRepository.findById(notification.photographerId())
                 .orElseThrow(() -> new IllegalArgumentException("Photographer not found: " + notification.photographerId()));
 
-        List<PhotoAsset> toPersist = new ArrayList<>();
+        List<UUID> storedIds = new ArrayList<>();
         List<String> skipped = new ArrayList<>();
         List<String> failures = new ArrayList<>();
 
+        Set<String> uniqueKeys = new LinkedHashSet<>();
         for (String rawKey : notification.objectKeys()) {
             if (rawKey == null || rawKey.isBlank()) {
                 failures.add("<blank>");
                 continue;
             }
             String key = normalizeKey(rawKey);
-
-            if (photoAssetRepository.existsByBucketAndObjectKey(bucket, key)) {
+            if (!uniqueKeys.add(key)) {
                 skipped.add(key);
-                continue;
-            }
-
-            HeadObjectResponse head;
-            try {
-                head = fetchObjectMetadata(bucket, key);
-            } catch (SdkException sdkEx) {
-                log.error("Failed to read metadata for bucket={} key={}: {}", bucket, key, sdkEx.getMessage());
-                failures.add(key);
-                continue;
             }
-
-            PhotoAsset asset = buildPhotoAsset(bucket, key, event, photographer, head);
-            toPersist.add(asset);
         }
 
-        List<PhotoAsset> saved = toPersist.isEmpty() ? Collections.emptyList() : photoAssetRepository.saveAll(toPersist);
+        List<String> keys = List.copyOf(uniqueKeys);
+        for (int from = 0; from < keys.size(); from += batchSize) {
+            List<String> batch = keys.subList(from, Math.min(from + batchSize, keys.size()));
+            ingestBatch(bucket, event, photographer, batch, storedIds, skipped, failures);
+        }
 
         return new IngestionResult(
                 notification.objectKeys().size(),
-                saved.size(),
-                saved.stream().map(PhotoAsset::getId).toList(),
+                storedIds.size(),
+                storedIds,
                 skipped,
                 failures
         );
     }
 
+    private void ingestBatch(
+            String bucket,
+            Event event,
+            Photographer photographer,
+            List<String> keys,
+            List<UUID> storedIds,
+            List<String> skipped,
+            List<String> failures
+    ) {
+        Set<String> existing = bulkRepository.findExistingObjectKeys(bucket, keys);
+
+        List<String> newKeys = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            if (existing.contains(key)) {
+                skipped.add(key);
+            } else {
+                newKeys.add(key);
+            }
+        }
+
+        var metadata = metadataFetcher.fetchAll(bucket, newKeys);
+        failures.addAll(metadata.failedKeys());
+
+        List<PhotoAsset> toPersist = new ArrayList<>();
+        metadata.metadataByKey().forEach((key, head) ->
+                toPersist.add(buildPhotoAsset(bucket, key, event, photographer, head)));
+
+        if (toPersist.isEmpty()) {
+            return;
+        }
+        fillCaptureTimesFromExif(bucket, event, toPersist, metadata.metadataByKey());
+        List<UUID> insertedIds = bulkRepository.insertIgnoringConflicts(toPersist);
+        Set<UUID> inserted = new HashSet<>(insertedIds);
+        for (PhotoAsset asset : toPersist) {
+            if (inserted.contains(asset.getId())) {
+                storedIds.add(asset.getId());
+            } else {
+                // Another consumer stored the same key between our existence check and the insert.
+                skipped.add(asset.getObjectKey());
+            }
+        }
+        if (!insertedIds.isEmpty()) {
+            eventPublisher.publishEvent(new PhotoAssetsStoredEvent(event.getId(), insertedIds));
+        }
+        log.debug("Ingested batch of {} keys for bucket={} ({} new rows stored)", keys.size(), bucket, inserted.size());
+    }
+
+    private void fillCaptureTimesFromExif(
+            String bucket,
+            Event event,
+            List<PhotoAsset> assets,
+            Map<String, HeadObjectResponse> metadataByKey
+    ) {
+        List<String> candidates = assets.stream()
+                .filter(asset -> asset.getCapturedAt() == null)
+                .map(PhotoAsset::getObjectKey)
+                .filter(key -> isJpeg(key, metadataByKey.get(key)))
+                .toList();
+        if (candidates.isEmpty()) {
+            return;
+        }
+        Map<String, Instant> captureTimes = exifExtractor.extractAll(bucket, candidates, resolveZone(event.getTimezone()));
+        for (PhotoAsset asset : assets) {
+            Instant capturedAt = captureTimes.get(asset.getObjectKey());
+            if (capturedAt != null) {
+                asset.setCapturedAt(capturedAt);
+            }
+        }
+    }
+
+    private static boolean isJpeg(String key, HeadObjectResponse head) {
+        String contentType = head == null ? null : head.contentType();
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).contains("jpeg")) {
+            return true;
+        }
+        String lowerKey = key.toLowerCase(Locale.ROOT);
+        return lowerKey.endsWith(".jpg") || lowerKey.endsWith(".jpeg");
+    }
+
+    private static ZoneId resolveZone(String timezone) {
+        if (timezone == null || timezone.isBlank()) {
+            return ZoneOffset.UTC;
+        }
+        try {
+            return ZoneId.of(timezone.trim());
+        } catch (DateTimeException e) {
+            log.debug("Unknown event timezone '{}', falling back to UTC", timezone);
+            return ZoneOffset.UTC;
+        }
+    }
+
     private static String normalizeKey(String key) {
         String trimmed = key.trim();
         return trimmed.startsWith("/") ? trimmed.substring(1) : trimmed;
@@ -121,6 +215,7 @@ public class PhotoAssetIngestionService {
             HeadObjectResponse head
     ) {
         PhotoAsset asset = new PhotoAsset();
+        asset.setId(UUID.randomUUID());
         asset.setBucket(bucket);
         asset.setObjectKey(key);
         asset.setEvent(event);
@@ -130,13 +225,6 @@ public class PhotoAssetIngestionService {
         return asset;
     }
 
-    private HeadObjectResponse fetchObjectMetadata(String bucket, String key) {
-        return s3Client.headObject(HeadObjectRequest.builder()
-                .bucket(bucket)
-                .key(key)
-                .build());
-    }
-
     private Instant extractCaptureTimestamp(HeadObjectResponse head) {
         if (head == null || head.metadata() == null || head.metadata().isEmpty()) {
             return null;
@@ -0,0 +1,179 @@
+package com.racephotos.service.ingestion;
+
+import com.racephotos.domain.photo.PhotoAssetBulkRepository;
+import com.racephotos.domain.photo.PhotoAssetStatusUpdate;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Buffers index status results and writes them as batched UPDATEs once the buffer fills up,
+ * on a fixed interval, when an indexing run completes, and on shutdown. Each update only applies while the asset is
+ * still leased by the node that indexed it.
+ * <p>
+ * Callers are usually virtual threads, so locking uses {@link ReentrantLock} rather than monitors, which would pin
+ * the carrier thread during the JDBC round trip. The buffer is bounded: while writes fail and it is at capacity,
+ * {@link #record} blocks until a flush makes room.
+ */
+@Component
+public class PhotoAssetStatusWriter {
+
+    public static final String STATUS_SUCCESS = "SUCCESS";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_RETRY = "RETRY";
+
+    private static final Logger log = LogManager.getLogger(PhotoAssetStatusWriter.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final PhotoAssetBulkRepository bulkRepository;
+    private final int batchSize;
+    private final int maxBuffered;
+    private final ReentrantLock bufferLock = new ReentrantLock();
+    private final Condition notFull = bufferLock.newCondition();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private List<PhotoAssetStatusUpdate> buffer = new ArrayList<>();
+
+    public PhotoAssetStatusWriter(
+            PhotoAssetBulkRepository bulkRepository,
+            @Value("${app.indexing.status-flush.batch-size:200}") int batchSize,
+            @Value("${app.indexing.status-flush.max-buffered:10000}") int maxBuffered
+    ) {
+        this.bulkRepository = Objects.requireNonNull(bulkRepository, "bulkRepository");
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBuffered = Math.max(this.batchSize, maxBuffered);
+    }
+
+    public void markSuccess(UUID assetId, String leaseOwner, Instant indexedAt) {
+        record(new PhotoAssetStatusUpdate(assetId, leaseOwner, STATUS_SUCCESS, indexedAt, null, null));
+    }
+
+    public void markFailed(UUID assetId, String leaseOwner, String error) {
+        record(new PhotoAssetStatusUpdate(assetId, leaseOwner, STATUS_FAILED, null, null, truncate(error)));
+    }
+
+    public void markRetry(UUID assetId, String leaseOwner, Instant nextAttemptAt, String error) {
+        record(new PhotoAssetStatusUpdate(assetId, leaseOwner, STATUS_RETRY, null, nextAttemptAt, truncate(error)));
+    }
+
+    public void record(PhotoAssetStatusUpdate update) {
+        Objects.requireNonNull(update, "update");
+        boolean full;
+        bufferLock.lock();
+        try {
+            while (buffer.size() >= maxBuffered) {
+                try {
+                    notFull.await(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // Keep the update rather than lose it; the interrupt is for the caller to act on.
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            buffer.add(update);
+            full = buffer.size() >= batchSize;
+        } finally {
+            bufferLock.unlock();
+        }
+        // A flush already in progress, or the scheduled one, picks the buffer up.
+        if (full && flushLock.tryLock()) {
+            try {
+                flushPending();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.indexing.status-flush.interval-millis:1000}")
+    public void flushScheduled() {
+        flush();
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushPending() {
+        List<PhotoAssetStatusUpdate> pending = drain();
+        int written = 0;
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            List<PhotoAssetStatusUpdate> chunk = pending.subList(from, Math.min(from + batchSize, pending.size()));
+            try {
+                written += bulkRepository.updateIndexStatuses(chunk);
+            } catch (DataAccessException e) {
+                log.error("Failed to write {} index status updates, will retry: {}",
+                        pending.size() - from, e.getMessage());
+                requeue(pending.subList(from, pending.size()));
+                return;
+            }
+        }
+        if (!pending.isEmpty()) {
+            // Updates for assets whose lease was taken over by another node match no row and are dropped.
+            log.debug("Flushed {} index status updates, {} dropped for lost leases",
+                    written, pending.size() - written);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        bufferLock.lock();
+        try {
+            if (!buffer.isEmpty()) {
+                log.warn("{} index status updates could not be written before shutdown", buffer.size());
+            }
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    private List<PhotoAssetStatusUpdate> drain() {
+        bufferLock.lock();
+        try {
+            if (buffer.isEmpty()) {
+                return List.of();
+            }
+            List<PhotoAssetStatusUpdate> drained = buffer;
+            buffer = new ArrayList<>();
+            notFull.signalAll();
+            return drained;
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+
+    // Producers are held back at maxBuffered, so the restored buffer stays within twice that.
+    private void requeue(List<PhotoAssetStatusUpdate> updates) {
+        bufferLock.lock();
+        try {
+            List<PhotoAssetStatusUpdate> restored = new ArrayList<>(updates.size() + buffer.size());
+            restored.addAll(updates);
+            restored.addAll(buffer);
+            buffer = restored;
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+}
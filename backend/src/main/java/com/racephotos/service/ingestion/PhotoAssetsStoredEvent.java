@@ -0,0 +1,9 @@
+package com.racephotos.service.ingestion;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published after ingestion has inserted new photo assets for an event.
+ */
+public record PhotoAssetsStoredEvent(UUID eventId, List<UUID> assetIds) { }
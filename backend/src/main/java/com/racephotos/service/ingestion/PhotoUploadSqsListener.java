@@ -2,13 +2,15 @@ package com.racephotos.service.ingestion;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.racephotos.domain.event.Event;
-import com.racephotos.domain.event.EventRepository;
-import com.racephotos.domain.photographer.Photographer;
-import com.racephotos.domain.photographer.PhotographerRepository;
+import com.racephotos.config.SqsConfig;
 import io.awspring.cloud.sqs.annotation.SqsListener;
+import io.awspring.cloud.sqs.listener.SqsHeaders;
+import io.awspring.cloud.sqs.listener.acknowledgement.BatchAcknowledgement;
+import io.awspring.cloud.sqs.operations.SqsTemplate;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Service;
 
 import java.net.URLDecoder;
@@ -16,10 +18,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -29,23 +28,59 @@ public class PhotoUploadSqsListener {
 
     private final ObjectMapper objectMapper;
     private final PhotoAssetIngestionService ingestionService;
-    private final EventRepository eventRepository;
-    private final PhotographerRepository photographerRepository;
+    private final UploadRouteResolver routeResolver;
+    private final SqsTemplate sqsTemplate;
+    private final String deadLetterQueue;
+    private final int maxReceiveCount;
 
     public PhotoUploadSqsListener(
             ObjectMapper objectMapper,
             PhotoAssetIngestionService ingestionService,
-            EventRepository eventRepository,
-            PhotographerRepository photographerRepository
+            UploadRouteResolver routeResolver,
+            SqsTemplate sqsTemplate,
+            @Value("${aws.sqs.dead-letter-queue:}") String deadLetterQueue,
+            @Value("${aws.sqs.max-receive-count:5}") int maxReceiveCount
     ) {
         this.objectMapper = objectMapper;
         this.ingestionService = ingestionService;
-        this.eventRepository = eventRepository;
-        this.photographerRepository = photographerRepository;
+        this.routeResolver = routeResolver;
+        this.sqsTemplate = sqsTemplate;
+        this.deadLetterQueue = deadLetterQueue;
+        this.maxReceiveCount = Math.max(1, maxReceiveCount);
     }
 
-    @SqsListener("${aws.sqs.photo-upload-queue:photo-upload-event-queue-dev}")
-    public void onMessage(String messageBody) {
+    @SqsListener(
+            value = "${aws.sqs.photo-upload-queue:photo-upload-event-queue-dev}",
+            factory = SqsConfig.PHOTO_UPLOAD_LISTENER_FACTORY
+    )
+    public void onMessages(List<Message<String>> messages, BatchAcknowledgement<String> acknowledgement) {
+        List<Message<String>> handled = new ArrayList<>(messages.size());
+        for (Message<String> message : messages) {
+            try {
+                List<String> failedKeys = handleMessage(message.getPayload());
+                if (failedKeys.isEmpty()) {
+                    handled.add(message);
+                } else if (forwardToDeadLetterQueue(message, false)) {
+                    handled.add(message);
+                } else {
+                    log.warn("Leaving message {} on the queue for redelivery; failed keys: {}", message.getHeaders().getId(), failedKeys);
+                }
+            } catch (IllegalArgumentException e) {
+                log.error("Discarding unprocessable message {}: {}", message.getHeaders().getId(), e.getMessage());
+                if (forwardToDeadLetterQueue(message, true)) {
+                    handled.add(message);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to process message {}; it will be redelivered", message.getHeaders().getId(), e);
+            }
+        }
+        if (!handled.isEmpty()) {
+            acknowledgement.acknowledge(handled);
+        }
+        log.debug("Processed batch of {} messages ({} acknowledged)", messages.size(), handled.size());
+    }
+
+    private List<String> handleMessage(String messageBody) {
         S3EventNotification notification = parse(messageBody);
         Map<IngestionKey, List<String>> groupedKeys = new HashMap<>();
         Map<IngestionKey, String> buckets = new HashMap<>();
@@ -54,24 +89,18 @@ public class PhotoUploadSqsListener {
             String bucket = record.s3().bucket().name();
             String key = decodeKey(record.s3().object().key());
 
-            Event event = resolveEvent(key)
-                    .orElse(null);
-            if (event == null) {
-                log.warn("Skipping key={} because no event uploadPrefix matched", key);
-                continue;
-            }
-            Photographer photographer = resolvePhotographer(event, key)
-                    .orElse(null);
-            if (photographer == null) {
-                log.warn("Skipping key={} because no photographer could be inferred", key);
+            UploadRouteResolver.UploadRoute route = routeResolver.resolve(key).orElse(null);
+            if (route == null) {
+                log.warn("Skipping key={} because no event upload prefix or photographer matched", key);
                 continue;
             }
 
-            IngestionKey groupingKey = new IngestionKey(event.getId(), photographer.getId());
+            IngestionKey groupingKey = new IngestionKey(route.eventId(), route.photographerId());
             groupedKeys.computeIfAbsent(groupingKey, k -> new ArrayList<>()).add(key);
             buckets.putIfAbsent(groupingKey, bucket);
         }
 
+        List<String> failedKeys = new ArrayList<>();
         for (Map.Entry<IngestionKey, List<String>> entry : groupedKeys.entrySet()) {
             IngestionKey groupingKey = entry.getKey();
             List<String> keys = entry.getValue();
@@ -92,47 +121,40 @@ public class PhotoUploadSqsListener {
                     result.requestedKeys(),
                     result.skippedExisting().size(),
                     result.failedKeys().size());
-
-            if (!result.failedKeys().isEmpty()) {
-                throw new IllegalStateException("Failed to ingest keys: " + result.failedKeys());
-            }
+            failedKeys.addAll(result.failedKeys());
         }
+        return failedKeys;
     }
 
-    private Optional<Event> resolveEvent(String objectKey) {
-        String[] parts = objectKey.split("/");
-        String eventSlug = parts[1];
-        return eventRepository.findBySlug(eventSlug);
-    }
-
-    private Optional<Photographer> resolvePhotographer(Event event, String objectKey) {
-        String[] parts = objectKey.split("/");
-        if (parts.length == 0 || parts[2].isBlank()) {
-            return Optional.empty();
+    private boolean forwardToDeadLetterQueue(Message<String> message, boolean unprocessable) {
+        if (deadLetterQueue == null || deadLetterQueue.isBlank()) {
+            return false;
         }
-        String slug = parts[2];
-        Optional<Photographer> photographer = photographerRepository.findBySlug(slug);
-        if (photographer.isPresent()) {
-            return photographer;
+        int receiveCount = receiveCount(message);
+        if (!unprocessable && receiveCount < maxReceiveCount) {
+            return false;
         }
-        // Fallback: if slug is not found but event has a single photographer assigned, use it.
-        Set<Photographer> photographers = event.getPhotographers();
-        if (photographers != null && photographers.size() == 1) {
-            log.warn("Photographer slug={} not found for event={} but event has a single photographer assigned; using it", slug, event.getId());
-            return Optional.of(photographers.iterator().next());
+        try {
+            sqsTemplate.send(deadLetterQueue, message.getPayload());
+            log.warn("Moved message {} to dead-letter queue {} after {} receives",
+                    message.getHeaders().getId(), deadLetterQueue, receiveCount);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Failed to forward message {} to dead-letter queue {}", message.getHeaders().getId(), deadLetterQueue, e);
+            return false;
         }
-        return Optional.empty();
     }
 
-    private static String normalizePrefix(String prefix) {
-        if (prefix == null) {
-            return null;
+    private static int receiveCount(Message<String> message) {
+        Object value = message.getHeaders().get(SqsHeaders.MessageSystemAttributes.SQS_APPROXIMATE_RECEIVE_COUNT);
+        if (value == null) {
+            return 1;
         }
-        String normalized = prefix.trim();
-        while (normalized.startsWith("/")) {
-            normalized = normalized.substring(1);
+        try {
+            return Integer.parseInt(value.toString());
+        } catch (NumberFormatException e) {
+            return 1;
         }
-        return normalized;
     }
 
     private String decodeKey(String key) {
@@ -0,0 +1,98 @@
+package com.racephotos.service.ingestion;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.StructuredTaskScope;
+
+@Component
+@SuppressWarnings("preview")
+public class S3ObjectMetadataFetcher {
+
+    private static final Logger log = LogManager.getLogger(S3ObjectMetadataFetcher.class);
+
+    private final S3Client s3Client;
+    private final int maxInFlight;
+    private final AwsRequestOverrideConfiguration requestOverride;
+
+    public S3ObjectMetadataFetcher(
+            S3Client s3Client,
+            @Value("${app.ingestion.head.max-in-flight:32}") int maxInFlight,
+            @Value("${app.ingestion.head.timeout-millis:5000}") long timeoutMillis
+    ) {
+        this.s3Client = Objects.requireNonNull(s3Client, "s3Client");
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.requestOverride = AwsRequestOverrideConfiguration.builder()
+                .apiCallTimeout(Duration.ofMillis(Math.max(1L, timeoutMillis)))
+                .build();
+    }
+
+    public MetadataFetchResult fetchAll(String bucket, List<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return new MetadataFetchResult(Map.of(), List.of());
+        }
+        long startNanos = System.nanoTime();
+        Map<String, HeadObjectResponse> fetched = new ConcurrentHashMap<>();
+        Semaphore permits = new Semaphore(maxInFlight);
+
+        // Permits are taken before forking so at most maxInFlight virtual threads exist at any time.
+        try (var scope = new StructuredTaskScope<Void>()) {
+            for (String key : keys) {
+                permits.acquire();
+                scope.fork(() -> {
+                    try {
+                        fetched.put(key, headObject(bucket, key));
+                    } catch (SdkException e) {
+                        log.error("Failed to read metadata for bucket={} key={}: {}", bucket, key, e.getMessage());
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                });
+            }
+            scope.join();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Metadata fetch interrupted", ie);
+        }
+
+        Map<String, HeadObjectResponse> ordered = new LinkedHashMap<>();
+        List<String> failed = new ArrayList<>();
+        for (String key : keys) {
+            HeadObjectResponse head = fetched.get(key);
+            if (head == null) {
+                failed.add(key);
+            } else {
+                ordered.put(key, head);
+            }
+        }
+        log.debug("Fetched metadata for {}/{} keys in bucket={} in {} ms",
+                ordered.size(), keys.size(), bucket, (System.nanoTime() - startNanos) / 1_000_000);
+        return new MetadataFetchResult(ordered, failed);
+    }
+
+    private HeadObjectResponse headObject(String bucket, String key) {
+        return s3Client.headObject(HeadObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .overrideConfiguration(requestOverride)
+                .build());
+    }
+
+    public record MetadataFetchResult(Map<String, HeadObjectResponse> metadataByKey, List<String> failedKeys) { }
+}
@@ -0,0 +1,215 @@
+package com.racephotos.service.ingestion;
+
+import com.racephotos.domain.event.Event;
+import com.racephotos.domain.event.EventRepository;
+import com.racephotos.domain.photographer.Photographer;
+import com.racephotos.domain.photographer.PhotographerRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Resolves uploaded object keys to (event, photographer) pairs from an in-memory snapshot of upload prefixes
+ * and photographer slugs, so routing an S3 notification costs no database round trips.
+ */
+@Component
+public class UploadRouteResolver {
+
+    private static final Logger log = LogManager.getLogger(UploadRouteResolver.class);
+
+    private final EventRepository eventRepository;
+    private final PhotographerRepository photographerRepository;
+    private final Duration maxAge;
+    private final Duration missRefreshInterval;
+    private final Object reloadLock = new Object();
+    private volatile RoutingSnapshot snapshot;
+
+    public UploadRouteResolver(
+            EventRepository eventRepository,
+            PhotographerRepository photographerRepository,
+            @Value("${app.ingestion.routing.max-age-seconds:300}") long maxAgeSeconds,
+            @Value("${app.ingestion.routing.miss-refresh-interval-seconds:30}") long missRefreshIntervalSeconds
+    ) {
+        this.eventRepository = Objects.requireNonNull(eventRepository, "eventRepository");
+        this.photographerRepository = Objects.requireNonNull(photographerRepository, "photographerRepository");
+        this.maxAge = Duration.ofSeconds(Math.max(1L, maxAgeSeconds));
+        this.missRefreshInterval = Duration.ofSeconds(Math.max(0L, missRefreshIntervalSeconds));
+    }
+
+    public Optional<UploadRoute> resolve(String objectKey) {
+        if (objectKey == null || objectKey.isBlank()) {
+            return Optional.empty();
+        }
+        String[] segments = splitSegments(objectKey);
+        RoutingSnapshot current = currentSnapshot();
+        Optional<UploadRoute> route = current.resolve(segments, objectKey);
+        if (route.isEmpty() && current.loadedAt().plus(missRefreshInterval).isBefore(Instant.now())) {
+            // The key may belong to an event or photographer created on another node since the last load.
+            route = reload(current).resolve(segments, objectKey);
+        }
+        return route;
+    }
+
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoutingChanged(UploadRoutingChangedEvent event) {
+        log.debug("Invalidating upload routes: {}", event.reason());
+        invalidate();
+    }
+
+    private RoutingSnapshot currentSnapshot() {
+        RoutingSnapshot current = snapshot;
+        if (current != null && current.loadedAt().plus(maxAge).isAfter(Instant.now())) {
+            return current;
+        }
+        return reload(current);
+    }
+
+    private RoutingSnapshot reload(RoutingSnapshot stale) {
+        synchronized (reloadLock) {
+            RoutingSnapshot current = snapshot;
+            if (current != null && current != stale) {
+                return current;
+            }
+            RoutingSnapshot loaded = load();
+            snapshot = loaded;
+            return loaded;
+        }
+    }
+
+    private RoutingSnapshot load() {
+        long startNanos = System.nanoTime();
+        PrefixNode root = new PrefixNode();
+        Map<String, EventRoute> eventsBySlug = new HashMap<>();
+        for (Event event : eventRepository.findAllWithPhotographers()) {
+            EventRoute route = new EventRoute(event.getId(), solePhotographerId(event.getPhotographers()));
+            if (event.getSlug() != null) {
+                eventsBySlug.put(event.getSlug(), route);
+            }
+            String[] prefix = splitSegments(normalizePrefix(event.getUploadPrefix()));
+            if (prefix.length > 0) {
+                root.insert(prefix, route);
+            }
+        }
+        Map<String, UUID> photographersBySlug = new HashMap<>();
+        for (Photographer photographer : photographerRepository.findAll()) {
+            if (photographer.getSlug() != null) {
+                photographersBySlug.put(photographer.getSlug(), photographer.getId());
+            }
+        }
+        log.info("Loaded upload routes for {} events and {} photographers in {} ms",
+                eventsBySlug.size(), photographersBySlug.size(), (System.nanoTime() - startNanos) / 1_000_000);
+        return new RoutingSnapshot(root, Map.copyOf(eventsBySlug), Map.copyOf(photographersBySlug), Instant.now());
+    }
+
+    private static UUID solePhotographerId(Set<Photographer> photographers) {
+        if (photographers == null || photographers.size() != 1) {
+            return null;
+        }
+        return photographers.iterator().next().getId();
+    }
+
+    private static String normalizePrefix(String prefix) {
+        if (prefix == null) {
+            return null;
+        }
+        String normalized = prefix.trim();
+        while (normalized.startsWith("/")) {
+            normalized = normalized.substring(1);
+        }
+        return normalized;
+    }
+
+    private static String[] splitSegments(String path) {
+        if (path == null || path.isBlank()) {
+            return new String[0];
+        }
+        return Arrays.stream(path.split("/"))
+                .filter(segment -> !segment.isBlank())
+                .toArray(String[]::new);
+    }
+
+    public record UploadRoute(UUID eventId, UUID photographerId) { }
+
+    private record EventRoute(UUID eventId, UUID solePhotographerId) { }
+
+    private record PrefixMatch(EventRoute event, int depth) { }
+
+    private record RoutingSnapshot(
+            PrefixNode prefixes,
+            Map<String, EventRoute> eventsBySlug,
+            Map<String, UUID> photographersBySlug,
+            Instant loadedAt
+    ) {
+        Optional<UploadRoute> resolve(String[] segments, String objectKey) {
+            // Explicit upload prefixes win (longest match); otherwise fall back to the in/{event}/{photographer}/ layout.
+            PrefixMatch match = prefixes.longestMatch(segments);
+            if (match == null && segments.length > 1) {
+                EventRoute bySlug = eventsBySlug.get(segments[1]);
+                match = bySlug == null ? null : new PrefixMatch(bySlug, 2);
+            }
+            if (match == null) {
+                log.warn("No event upload prefix matched key={}", objectKey);
+                return Optional.empty();
+            }
+
+            EventRoute event = match.event();
+            String photographerSlug = segments.length > match.depth() ? segments[match.depth()] : null;
+            UUID photographerId = photographerSlug == null ? null : photographersBySlug.get(photographerSlug);
+            if (photographerId == null && event.solePhotographerId() != null) {
+                log.warn("Photographer slug={} not found for event={} but event has a single photographer assigned; using it",
+                        photographerSlug, event.eventId());
+                photographerId = event.solePhotographerId();
+            }
+            if (photographerId == null) {
+                log.warn("No photographer could be inferred for key={}", objectKey);
+                return Optional.empty();
+            }
+            return Optional.of(new UploadRoute(event.eventId(), photographerId));
+        }
+    }
+
+    private static final class PrefixNode {
+        private final Map<String, PrefixNode> children = new HashMap<>();
+        private EventRoute event;
+
+        void insert(String[] segments, EventRoute route) {
+            PrefixNode node = this;
+            for (String segment : segments) {
+                node = node.children.computeIfAbsent(segment, s -> new PrefixNode());
+            }
+            node.event = route;
+        }
+
+        PrefixMatch longestMatch(String[] segments) {
+            PrefixMatch best = null;
+            PrefixNode node = this;
+            // Never consume the final segment: it is the file name, not part of a prefix.
+            for (int i = 0; i < segments.length - 1; i++) {
+                node = node.children.get(segments[i]);
+                if (node == null) {
+                    break;
+                }
+                if (node.event != null) {
+                    best = new PrefixMatch(node.event, i + 1);
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.racephotos.service.ingestion;
+
+/**
+ * Published whenever an event's slug, upload prefix or photographer roster, or a photographer's slug, changes.
+ */
+public record UploadRoutingChangedEvent(String reason) { }
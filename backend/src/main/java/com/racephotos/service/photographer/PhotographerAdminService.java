@@ -12,8 +12,10 @@ import com.racephotos.service.photographer.dto.CreatePhotographerCommand;
 import com.racephotos.service.photographer.dto.PayoutPreferencesData;
 import com.racephotos.service.common.dto.PricingProfileData;
 import com.racephotos.service.photographer.dto.UpdatePhotographerCommand;
+import com.racephotos.service.ingestion.UploadRoutingChangedEvent;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -32,13 +34,16 @@ public class PhotographerAdminService {
 
     private final PhotographerRepository photographerRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public PhotographerAdminService(
             PhotographerRepository photographerRepository,
-            UserRepository userRepository
+            UserRepository userRepository,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.photographerRepository = Objects.requireNonNull(photographerRepository, "photographerRepository");
         this.userRepository = Objects.requireNonNull(userRepository, "userRepository");
+        this.eventPublisher = Objects.requireNonNull(eventPublisher, "eventPublisher");
     }
 
     @Transactional
@@ -105,6 +110,7 @@ public class PhotographerAdminService {
         try {
             Photographer saved = photographerRepository.save(photographer);
             log.info("User {} created photographer {} with slug '{}'", creator.getEmail(), saved.getId(), saved.getSlug());
+            eventPublisher.publishEvent(new UploadRoutingChangedEvent("photographer created " + saved.getId()));
             return saved;
         } catch (DataIntegrityViolationException e) {
             log.warn("Failed to create photographer with slug '{}' due to constraint violation", slug);
@@ -187,6 +193,7 @@ public class PhotographerAdminService {
         try {
             Photographer saved = photographerRepository.save(photographer);
             log.info("Updated photographer {} with slug '{}'", saved.getId(), saved.getSlug());
+            eventPublisher.publishEvent(new UploadRoutingChangedEvent("photographer updated " + saved.getId()));
             return saved;
         } catch (DataIntegrityViolationException e) {
             log.warn("Failed to update photographer with slug '{}' due to constraint violation", slug);
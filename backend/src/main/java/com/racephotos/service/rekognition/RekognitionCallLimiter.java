@@ -0,0 +1,187 @@
+package com.racephotos.service.rekognition;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.rekognition.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.rekognition.model.ThrottlingException;
+
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Shared AIMD concurrency limit for Rekognition calls. The limit grows by one per window of successful calls made
+ * while saturated and is cut multiplicatively on throttling. Interactive calls are admitted ahead of background work,
+ * and background work can never take the slots reserved for interactive traffic.
+ */
+@Component
+public class RekognitionCallLimiter {
+
+    public enum Priority {
+        INTERACTIVE,
+        BACKGROUND
+    }
+
+    private static final Logger log = LogManager.getLogger(RekognitionCallLimiter.class);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long decreaseCooldownNanos;
+    private final double interactiveReserve;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition interactiveAvailable = lock.newCondition();
+    private final Condition backgroundAvailable = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int waitingInteractive;
+    private long lastDecreaseNanos;
+
+    public RekognitionCallLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${aws.rekognition.limiter.initial-limit:8}") int initialLimit,
+            @Value("${aws.rekognition.limiter.min-limit:1}") int minLimit,
+            @Value("${aws.rekognition.limiter.max-limit:64}") int maxLimit,
+            @Value("${aws.rekognition.limiter.backoff-ratio:0.7}") double backoffRatio,
+            @Value("${aws.rekognition.limiter.decrease-cooldown-millis:1000}") long decreaseCooldownMillis,
+            @Value("${aws.rekognition.limiter.interactive-reserve:0.2}") double interactiveReserve
+    ) {
+        Objects.requireNonNull(meterRegistry, "meterRegistry");
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.backoffRatio = Math.min(0.95, Math.max(0.1, backoffRatio));
+        this.decreaseCooldownNanos = Math.max(0L, decreaseCooldownMillis) * 1_000_000L;
+        this.interactiveReserve = Math.min(0.9, Math.max(0.0, interactiveReserve));
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+
+        Gauge.builder("rekognition.concurrency.limit", this, RekognitionCallLimiter::currentLimit)
+                .description("Current adaptive concurrency limit for Rekognition calls")
+                .register(meterRegistry);
+        Gauge.builder("rekognition.concurrency.in_flight", this, RekognitionCallLimiter::currentInFlight)
+                .description("Rekognition calls currently in flight")
+                .register(meterRegistry);
+    }
+
+    public <T> T call(Priority priority, Supplier<T> call) {
+        Objects.requireNonNull(priority, "priority");
+        Objects.requireNonNull(call, "call");
+        acquire(priority);
+        boolean throttled = false;
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            throttled = isThrottling(e);
+            throw e;
+        } finally {
+            release(throttled);
+        }
+    }
+
+    public int maxLimit() {
+        return maxLimit;
+    }
+
+    public int currentLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of slots background callers may currently occupy, i.e. the limit minus the interactive reserve.
+     */
+    public int backgroundCapacity() {
+        lock.lock();
+        try {
+            return backgroundLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int currentInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static boolean isThrottling(Throwable e) {
+        if (e instanceof ThrottlingException || e instanceof ProvisionedThroughputExceededException) {
+            return true;
+        }
+        return e instanceof AwsServiceException ase && ase.isThrottlingException();
+    }
+
+    private void acquire(Priority priority) {
+        lock.lock();
+        try {
+            if (priority == Priority.INTERACTIVE) {
+                waitingInteractive++;
+                try {
+                    while (inFlight >= (int) limit) {
+                        interactiveAvailable.await();
+                    }
+                } finally {
+                    if (--waitingInteractive == 0) {
+                        backgroundAvailable.signalAll();
+                    }
+                }
+            } else {
+                while (waitingInteractive > 0 || inFlight >= backgroundLimit()) {
+                    backgroundAvailable.await();
+                }
+            }
+            inFlight++;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a Rekognition slot", ie);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(boolean throttled) {
+        lock.lock();
+        try {
+            boolean saturated = inFlight >= backgroundLimit();
+            inFlight--;
+            if (throttled) {
+                long now = System.nanoTime();
+                if (now - lastDecreaseNanos >= decreaseCooldownNanos) {
+                    lastDecreaseNanos = now;
+                    double previous = limit;
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    log.info("Rekognition throttled, concurrency limit {} -> {}", (int) previous, (int) limit);
+                }
+            } else if (saturated && limit < maxLimit) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            if (waitingInteractive > 0) {
+                interactiveAvailable.signal();
+            } else {
+                backgroundAvailable.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int backgroundLimit() {
+        int current = (int) limit;
+        int reserved = current > 1 ? Math.max(1, (int) Math.ceil(current * interactiveReserve)) : 0;
+        return Math.max(1, current - reserved);
+    }
+}
@@ -0,0 +1,340 @@
+package com.racephotos.service.search;
+
+import com.racephotos.domain.event.Event;
+import com.racephotos.domain.event.EventRepository;
+import com.racephotos.domain.event.EventStatus;
+import com.racephotos.service.event.EventStatusChangedEvent;
+import com.racephotos.service.ingestion.FaceMetadataRepository;
+import com.racephotos.service.ingestion.FaceMetadataRepository.FaceMetadataRecord;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import software.amazon.awssdk.services.rekognition.model.BoundingBox;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-event in-memory copy of the face metadata in DynamoDB, so searches on live events resolve matched faces without
+ * a round trip. Events are loaded in the background when they become {@link EventStatus#ACTIVE}, kept current as
+ * faces are indexed on this node, and dropped when archived or removed. Lookups that miss still go to DynamoDB.
+ * Loading needs the DynamoDB event index; without it nothing is cached.
+ */
+@Component
+public class EventFaceMetadataCache {
+
+    private static final Logger log = LogManager.getLogger(EventFaceMetadataCache.class);
+
+    private final FaceMetadataRepository metadataRepository;
+    private final EventRepository eventRepository;
+    private final boolean enabled;
+    private final int maxFacesPerEvent;
+    private final Map<UUID, EventFaces> events = new ConcurrentHashMap<>();
+
+    public EventFaceMetadataCache(
+            FaceMetadataRepository metadataRepository,
+            EventRepository eventRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.search.metadata-cache.enabled:true}") boolean enabled,
+            @Value("${app.search.metadata-cache.max-faces-per-event:2000000}") int maxFacesPerEvent
+    ) {
+        this.metadataRepository = Objects.requireNonNull(metadataRepository, "metadataRepository");
+        this.eventRepository = Objects.requireNonNull(eventRepository, "eventRepository");
+        this.enabled = enabled;
+        this.maxFacesPerEvent = Math.max(1, maxFacesPerEvent);
+        Gauge.builder("face.metadata.cache.faces", events, cached -> cached.values().stream().mapToInt(EventFaces::size).sum())
+                .description("Face metadata records held in memory across all cached events")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmActiveEvents() {
+        if (!enabled) {
+            return;
+        }
+        if (!metadataRepository.supportsEventQueries()) {
+            log.warn("Face metadata cache warm-up disabled: aws.dynamodb.event-index is not configured");
+            return;
+        }
+        for (Event event : eventRepository.findByStatus(EventStatus.ACTIVE)) {
+            warm(event.getId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventStatusChanged(EventStatusChangedEvent change) {
+        if (!enabled) {
+            return;
+        }
+        switch (change.status()) {
+            case ACTIVE -> warm(change.eventId());
+            case ARCHIVED, REMOVED -> evict(change.eventId());
+            default -> { }
+        }
+    }
+
+    /**
+     * Returns the cached records among {@code faceIds} for the event; ids that are not cached are absent.
+     */
+    public Map<String, FaceMetadataRecord> lookup(UUID eventId, Collection<String> faceIds) {
+        EventFaces faces = events.get(eventId);
+        if (faces == null || faceIds == null || faceIds.isEmpty()) {
+            return Map.of();
+        }
+        return faces.lookup(faceIds);
+    }
+
+    /**
+     * Adds freshly indexed faces to their event, if that event is cached on this node.
+     */
+    public void record(UUID eventId, List<FaceMetadataRecord> records) {
+        EventFaces faces = events.get(eventId);
+        if (faces != null) {
+            faces.addAll(records);
+        }
+    }
+
+    public void evict(UUID eventId) {
+        EventFaces removed = events.remove(eventId);
+        if (removed != null) {
+            log.info("Evicted {} cached face records of event {}", removed.size(), eventId);
+        }
+    }
+
+    private void warm(UUID eventId) {
+        if (!metadataRepository.supportsEventQueries()) {
+            return;
+        }
+        EventFaces faces = new EventFaces(eventId.toString(), maxFacesPerEvent);
+        // Registered before loading so faces indexed while the load runs are not lost.
+        if (events.putIfAbsent(eventId, faces) != null) {
+            return;
+        }
+        Thread.ofVirtual().name("face-metadata-warm-" + eventId).start(() -> {
+            long startNanos = System.nanoTime();
+            try {
+                metadataRepository.forEachByEventId(eventId.toString(), faces::add);
+                log.info("Loaded {} face records of event {} in {} ms",
+                        faces.size(), eventId, (System.nanoTime() - startNanos) / 1_000_000);
+            } catch (RuntimeException e) {
+                log.warn("Failed to load face metadata of event {}: {}", eventId, e.getMessage());
+                events.remove(eventId, faces);
+            }
+        });
+    }
+
+    /**
+     * Open-addressing table keyed by the two halves of the face id UUID. Per face it keeps an index into the event's
+     * photo table, the bounding box as four packed floats, and the confidence; strings are stored once per photo.
+     */
+    private static final class EventFaces {
+
+        private static final int EMPTY = -1;
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final String eventId;
+        private final int maxFaces;
+        private final List<String> photoKeys = new ArrayList<>();
+        private final List<String> photoBuckets = new ArrayList<>();
+        private final List<String> photoCollections = new ArrayList<>();
+        private final List<String> imageIds = new ArrayList<>();
+        private final Map<String, Integer> photoIndexByImage = new HashMap<>();
+        private long[] faceIdHigh;
+        private long[] faceIdLow;
+        private int[] photoIndex;
+        private float[] boxes;
+        private float[] confidences;
+        private int size;
+        private boolean full;
+
+        private EventFaces(String eventId, int maxFaces) {
+            this.eventId = eventId;
+            this.maxFaces = maxFaces;
+            allocate(1024);
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return size;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void addAll(List<FaceMetadataRecord> records) {
+            lock.writeLock().lock();
+            try {
+                for (FaceMetadataRecord record : records) {
+                    put(record);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void add(FaceMetadataRecord record) {
+            lock.writeLock().lock();
+            try {
+                put(record);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        Map<String, FaceMetadataRecord> lookup(Collection<String> faceIds) {
+            Map<String, FaceMetadataRecord> found = new HashMap<>();
+            lock.readLock().lock();
+            try {
+                for (String faceId : faceIds) {
+                    UUID id = parse(faceId);
+                    if (id == null) {
+                        continue;
+                    }
+                    int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+                    if (photoIndex[slot] != EMPTY) {
+                        found.put(faceId, toRecord(faceId, slot));
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            return found;
+        }
+
+        private void put(FaceMetadataRecord record) {
+            UUID id = parse(record.faceId());
+            if (id == null || record.photoKey() == null || !eventId.equals(record.eventId())) {
+                return;
+            }
+            if (size >= maxFaces) {
+                if (!full) {
+                    full = true;
+                    log.warn("Face metadata cache for event {} reached {} faces; further faces are not cached",
+                            eventId, maxFaces);
+                }
+                return;
+            }
+            if ((size + 1) * 4L > photoIndex.length * 3L) {
+                rehash(photoIndex.length * 2);
+            }
+            int slot = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (photoIndex[slot] == EMPTY) {
+                size++;
+            }
+            faceIdHigh[slot] = id.getMostSignificantBits();
+            faceIdLow[slot] = id.getLeastSignificantBits();
+            photoIndex[slot] = photoIndexOf(record);
+            BoundingBox box = record.boundingBox();
+            boxes[slot * 4] = box == null || box.width() == null ? Float.NaN : box.width();
+            boxes[slot * 4 + 1] = box == null || box.height() == null ? Float.NaN : box.height();
+            boxes[slot * 4 + 2] = box == null || box.left() == null ? Float.NaN : box.left();
+            boxes[slot * 4 + 3] = box == null || box.top() == null ? Float.NaN : box.top();
+            confidences[slot] = record.confidence() == null ? Float.NaN : record.confidence();
+        }
+
+        // Faces of one image share a row; keyed by image id when present, otherwise by photo key.
+        private int photoIndexOf(FaceMetadataRecord record) {
+            String photoRef = record.imageId() == null ? "key:" + record.photoKey() : record.imageId();
+            Integer existing = photoIndexByImage.get(photoRef);
+            if (existing != null) {
+                return existing;
+            }
+            int index = photoKeys.size();
+            photoKeys.add(record.photoKey());
+            photoBuckets.add(record.bucket());
+            photoCollections.add(record.collectionId());
+            imageIds.add(record.imageId());
+            photoIndexByImage.put(photoRef, index);
+            return index;
+        }
+
+        private FaceMetadataRecord toRecord(String faceId, int slot) {
+            int photo = photoIndex[slot];
+            BoundingBox box = null;
+            if (!Float.isNaN(boxes[slot * 4])) {
+                box = BoundingBox.builder()
+                        .width(boxes[slot * 4])
+                        .height(boxes[slot * 4 + 1])
+                        .left(boxes[slot * 4 + 2])
+                        .top(boxes[slot * 4 + 3])
+                        .build();
+            }
+            float confidence = confidences[slot];
+            return new FaceMetadataRecord(
+                    faceId,
+                    photoCollections.get(photo),
+                    eventId,
+                    photoBuckets.get(photo),
+                    photoKeys.get(photo),
+                    imageIds.get(photo),
+                    box,
+                    Float.isNaN(confidence) ? null : confidence
+            );
+        }
+
+        private int find(long high, long low) {
+            int mask = photoIndex.length - 1;
+            int slot = Long.hashCode(high * 31 + low) * 0x9E3779B9 & mask;
+            while (photoIndex[slot] != EMPTY && (faceIdHigh[slot] != high || faceIdLow[slot] != low)) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void rehash(int capacity) {
+            long[] oldHigh = faceIdHigh;
+            long[] oldLow = faceIdLow;
+            int[] oldPhoto = photoIndex;
+            float[] oldBoxes = boxes;
+            float[] oldConfidences = confidences;
+            allocate(capacity);
+            for (int i = 0; i < oldPhoto.length; i++) {
+                if (oldPhoto[i] == EMPTY) {
+                    continue;
+                }
+                int slot = find(oldHigh[i], oldLow[i]);
+                faceIdHigh[slot] = oldHigh[i];
+                faceIdLow[slot] = oldLow[i];
+                photoIndex[slot] = oldPhoto[i];
+                System.arraycopy(oldBoxes, i * 4, boxes, slot * 4, 4);
+                confidences[slot] = oldConfidences[i];
+            }
+        }
+
+        private void allocate(int capacity) {
+            faceIdHigh = new long[capacity];
+            faceIdLow = new long[capacity];
+            photoIndex = new int[capacity];
+            Arrays.fill(photoIndex, EMPTY);
+            boxes = new float[capacity * 4];
+            confidences = new float[capacity];
+        }
+
+        private static UUID parse(String faceId) {
+            if (faceId == null) {
+                return null;
+            }
+            try {
+                return UUID.fromString(faceId);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.racephotos.service.search;
+
+import com.racephotos.domain.event.Event;
+import com.racephotos.domain.event.EventRepository;
+import com.racephotos.domain.event.EventStatus;
+import com.racephotos.domain.photo.ClusteredFace;
+import com.racephotos.domain.photo.FaceClusterRepository;
+import com.racephotos.service.event.EventStatusChangedEvent;
+import com.racephotos.service.facematch.FaceMatchingEngine;
+import com.racephotos.service.facematch.FaceMatchingEngine.FaceMatch;
+import com.racephotos.service.ingestion.FaceMetadataRepository;
+import com.racephotos.service.ingestion.FaceMetadataRepository.FaceMetadataRecord;
+import com.racephotos.service.rekognition.RekognitionCallLimiter;
+import com.racephotos.service.rekognition.RekognitionCallLimiter.Priority;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import software.amazon.awssdk.services.rekognition.model.BoundingBox;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Groups the faces of an event into person clusters: every face is searched against the event collection by its face
+ * id, and two faces are linked only when each finds the other above the clustering threshold. Links are merged with
+ * union-find, strongest first, and a merge that would exceed the maximum cluster size is skipped, so a few borderline
+ * links cannot chain different people into one cluster. Searches then only need one probe match to return the whole
+ * cluster. Runs when an event is COMPLETED, or on demand.
+ */
+@Service
+@SuppressWarnings("preview")
+public class FaceClusteringService {
+
+    private static final Logger log = LogManager.getLogger(FaceClusteringService.class);
+
+    private final FaceMatchingEngine faceMatching;
+    private final FaceMetadataRepository metadataRepository;
+    private final EventRepository eventRepository;
+    private final FaceClusterRepository clusterRepository;
+    private final RekognitionCallLimiter callLimiter;
+    private final FaceIndexGenerations indexGenerations;
+    private final Executor executor;
+    private final boolean enabled;
+    private final float threshold;
+    private final int maxMatchesPerFace;
+    private final int maxConcurrency;
+    private final int maxClusterSize;
+    private final double maxFailureRatio;
+    private final Set<UUID> runningEvents = ConcurrentHashMap.newKeySet();
+
+    public FaceClusteringService(
+            FaceMatchingEngine faceMatching,
+            FaceMetadataRepository metadataRepository,
+            EventRepository eventRepository,
+            FaceClusterRepository clusterRepository,
+            RekognitionCallLimiter callLimiter,
+            FaceIndexGenerations indexGenerations,
+            @Qualifier("faceIndexingExecutor") Executor executor,
+            @Value("${app.search.clustering.enabled:true}") boolean enabled,
+            @Value("${app.search.clustering.threshold:95}") float threshold,
+            @Value("${app.search.clustering.max-matches-per-face:100}") int maxMatchesPerFace,
+            @Value("${app.search.clustering.max-concurrency:8}") int maxConcurrency,
+            @Value("${app.search.clustering.max-cluster-size:200}") int maxClusterSize,
+            @Value("${app.search.clustering.max-failure-ratio:0.01}") double maxFailureRatio
+    ) {
+        this.faceMatching = Objects.requireNonNull(faceMatching, "faceMatching");
+        this.metadataRepository = Objects.requireNonNull(metadataRepository, "metadataRepository");
+        this.eventRepository = Objects.requireNonNull(eventRepository, "eventRepository");
+        this.clusterRepository = Objects.requireNonNull(clusterRepository, "clusterRepository");
+        this.callLimiter = Objects.requireNonNull(callLimiter, "callLimiter");
+        this.indexGenerations = Objects.requireNonNull(indexGenerations, "indexGenerations");
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.maxMatchesPerFace = Math.max(1, maxMatchesPerFace);
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.maxClusterSize = Math.max(2, maxClusterSize);
+        this.maxFailureRatio = Math.min(1.0, Math.max(0.0, maxFailureRatio));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventStatusChanged(EventStatusChangedEvent change) {
+        if (!enabled || change.status() != EventStatus.COMPLETED) {
+            return;
+        }
+        if (!metadataRepository.supportsEventQueries()) {
+            log.warn("Skipping face clustering of event {}: aws.dynamodb.event-index is not configured", change.eventId());
+            return;
+        }
+        start(change.eventId());
+    }
+
+    /**
+     * Starts clustering the event in the background. Returns {@code false} if a run for the event is already going on
+     * on this node.
+     */
+    public boolean start(UUID eventId) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Event not found");
+        }
+        if (!metadataRepository.supportsEventQueries()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Face clustering requires the DynamoDB event index");
+        }
+        if (!runningEvents.add(eventId)) {
+            log.info("Face clustering already running for event {}", eventId);
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    cluster(eventId);
+                } catch (Exception e) {
+                    log.error("Face clustering failed for event {}", eventId, e);
+                } finally {
+                    runningEvents.remove(eventId);
+                }
+            });
+        } catch (RuntimeException e) {
+            runningEvents.remove(eventId);
+            throw e;
+        }
+        return true;
+    }
+
+    private void cluster(UUID eventId) throws InterruptedException {
+        long startNanos = System.nanoTime();
+        Event event = eventRepository.findById(eventId).orElse(null);
+        if (event == null) {
+            return;
+        }
+        String collectionId = event.getVectorCollectionId();
+        List<FaceMetadataRecord> faces = new ArrayList<>();
+        metadataRepository.forEachByEventId(eventId.toString(), faces::add);
+        Map<String, Integer> indexByFaceId = new HashMap<>(faces.size() * 2);
+        for (int i = 0; i < faces.size(); i++) {
+            indexByFaceId.putIfAbsent(faces.get(i).faceId(), i);
+        }
+
+        // Hits per face as face indexes with their similarity; filled by the search tasks.
+        int[][] neighbors = new int[faces.size()][];
+        float[][] similarities = new float[faces.size()][];
+        AtomicInteger failedSearches = new AtomicInteger();
+        Semaphore permits = new Semaphore(maxConcurrency);
+        try (var scope = new StructuredTaskScope<Void>()) {
+            for (int i = 0; i < faces.size(); i++) {
+                int face = i;
+                String faceId = faces.get(i).faceId();
+                permits.acquire();
+                scope.fork(() -> {
+                    try {
+                        List<FaceMatch> hits = callLimiter.call(Priority.BACKGROUND,
+                                () -> faceMatching.searchByFaceId(collectionId, faceId, maxMatchesPerFace, threshold));
+                        int[] ids = new int[hits.size()];
+                        float[] scores = new float[hits.size()];
+                        int count = 0;
+                        for (FaceMatch hit : hits) {
+                            Integer other = indexByFaceId.get(hit.faceId());
+                            if (other != null && other != face) {
+                                ids[count] = other;
+                                scores[count] = hit.similarity();
+                                count++;
+                            }
+                        }
+                        neighbors[face] = Arrays.copyOf(ids, count);
+                        similarities[face] = Arrays.copyOf(scores, count);
+                    } catch (RuntimeException e) {
+                        failedSearches.incrementAndGet();
+                        log.debug("Cluster search failed for face {} of event {}: {}", faceId, eventId, e.getMessage());
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                });
+            }
+            scope.join();
+        }
+
+        if (!faces.isEmpty() && failedSearches.get() > faces.size() * maxFailureRatio) {
+            // Missing searches drop links at random; keep the previous clustering rather than replace it with that.
+            log.error("Face clustering of event {} aborted: {} of {} searches failed",
+                    eventId, failedSearches.get(), faces.size());
+            return;
+        }
+
+        UnionFind clusters = link(neighbors, similarities);
+
+        Map<Integer, UUID> clusterIds = new HashMap<>();
+        List<ClusteredFace> members = new ArrayList<>();
+        for (int i = 0; i < faces.size(); i++) {
+            int root = clusters.find(i);
+            if (clusters.size(root) < 2) {
+                continue;
+            }
+            FaceMetadataRecord face = faces.get(i);
+            BoundingBox box = face.boundingBox();
+            members.add(new ClusteredFace(
+                    clusterIds.computeIfAbsent(root, r -> UUID.randomUUID()),
+                    face.faceId(),
+                    face.photoKey(),
+                    face.confidence(),
+                    box == null ? null : box.left(),
+                    box == null ? null : box.top(),
+                    box == null ? null : box.width(),
+                    box == null ? null : box.height()
+            ));
+        }
+        clusterRepository.replaceClusters(eventId, members);
+        // Cached search results predate the clusters.
+        indexGenerations.advance(eventId);
+        log.info("Clustered {} faces of event {} into {} clusters ({} faces clustered, {} searches failed) in {} ms",
+                faces.size(), eventId, clusterIds.size(), members.size(), failedSearches.get(),
+                (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * Merges mutual matches, strongest first. A link is scored with the weaker of its two directions, and merges that
+     * would grow a cluster beyond {@code maxClusterSize} are skipped.
+     */
+    private UnionFind link(int[][] neighbors, float[][] similarities) {
+        int count = 0;
+        for (int a = 0; a < neighbors.length; a++) {
+            for (int k = 0; neighbors[a] != null && k < neighbors[a].length; k++) {
+                int b = neighbors[a][k];
+                if (b > a && neighbors[b] != null && similarity(neighbors[b], similarities[b], a) >= 0) {
+                    count++;
+                }
+            }
+        }
+        // Each key holds the link score in its high half and the link's index in its low half. Similarities are
+        // positive, so their float bits sort like the values.
+        long[] keys = new long[count];
+        int[] from = new int[count];
+        int[] to = new int[count];
+        int next = 0;
+        for (int a = 0; a < neighbors.length; a++) {
+            for (int k = 0; neighbors[a] != null && k < neighbors[a].length; k++) {
+                int b = neighbors[a][k];
+                if (b <= a || neighbors[b] == null) {
+                    continue;
+                }
+                float reverse = similarity(neighbors[b], similarities[b], a);
+                if (reverse < 0) {
+                    continue;
+                }
+                keys[next] = ((long) Float.floatToIntBits(Math.min(similarities[a][k], reverse)) << 32) | next;
+                from[next] = a;
+                to[next] = b;
+                next++;
+            }
+        }
+        Arrays.sort(keys);
+
+        UnionFind clusters = new UnionFind(neighbors.length);
+        for (int i = keys.length - 1; i >= 0; i--) {
+            int link = (int) (keys[i] & 0xFFFFFFFFL);
+            clusters.union(from[link], to[link], maxClusterSize);
+        }
+        return clusters;
+    }
+
+    private static float similarity(int[] ids, float[] scores, int face) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == face) {
+                return scores[i];
+            }
+        }
+        return -1F;
+    }
+
+    /**
+     * Disjoint sets over face indexes with union by size and path halving.
+     */
+    private static final class UnionFind {
+
+        private final int[] parent;
+        private final int[] size;
+
+        private UnionFind(int count) {
+            parent = new int[count];
+            size = new int[count];
+            for (int i = 0; i < count; i++) {
+                parent[i] = i;
+                size[i] = 1;
+            }
+        }
+
+        int find(int x) {
+            while (parent[x] != x) {
+                parent[x] = parent[parent[x]];
+                x = parent[x];
+            }
+            return x;
+        }
+
+        int size(int root) {
+            return size[root];
+        }
+
+        void union(int a, int b, int maxSize) {
+            int rootA = find(a);
+            int rootB = find(b);
+            if (rootA == rootB || size[rootA] + size[rootB] > maxSize) {
+                return;
+            }
+            if (size[rootA] < size[rootB]) {
+                int swap = rootA;
+                rootA = rootB;
+                rootB = swap;
+            }
+            parent[rootB] = rootA;
+            size[rootA] += size[rootB];
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.racephotos.service.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-event counter that advances whenever faces are added to the event's collection. Search results cached under an
+ * older generation are never served again. Generations are local to this node; the short cache TTL bounds staleness
+ * for faces indexed elsewhere.
+ */
+@Component
+public class FaceIndexGenerations {
+
+    private final Map<UUID, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public long current(UUID eventId) {
+        AtomicLong generation = generations.get(eventId);
+        return generation == null ? 0L : generation.get();
+    }
+
+    public long advance(UUID eventId) {
+        return generations.computeIfAbsent(eventId, id -> new AtomicLong()).incrementAndGet();
+    }
+}
@@ -1,7 +1,14 @@
 package com.racephotos.service.search;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.racephotos.domain.event.Event;
 import com.racephotos.domain.event.EventRepository;
+import com.racephotos.domain.photo.ClusteredFace;
+import com.racephotos.domain.photo.FaceClusterRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,124 +16,401 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 import software.amazon.awssdk.core.exception.SdkException;
-import software.amazon.awssdk.services.rekognition.RekognitionClient;
 import software.amazon.awssdk.services.rekognition.model.BoundingBox;
-import software.amazon.awssdk.services.rekognition.model.Face;
-import software.amazon.awssdk.services.rekognition.model.FaceMatch;
-import software.amazon.awssdk.services.rekognition.model.Image;
-import software.amazon.awssdk.services.rekognition.model.SearchFacesByImageRequest;
-import software.amazon.awssdk.services.rekognition.model.SearchFacesByImageResponse;
-import software.amazon.awssdk.services.rekognition.model.S3Object;
-import software.amazon.awssdk.services.s3.model.GetObjectRequest;
-import software.amazon.awssdk.services.s3.presigner.S3Presigner;
-import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 
 import java.util.*;
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
 
+import com.racephotos.service.facematch.FaceMatchingEngine;
+import com.racephotos.service.facematch.FaceMatchingEngine.FaceMatch;
 import com.racephotos.service.ingestion.FaceMetadataRepository;
+import com.racephotos.service.ingestion.FaceMetadataRepository.FaceMetadataRecord;
+import com.racephotos.service.rekognition.RekognitionCallLimiter;
+import com.racephotos.service.rekognition.RekognitionCallLimiter.Priority;
+import com.racephotos.service.storage.PresignedUrlCache;
 
 @Service
 public class FaceSearchService {
 
     private static final Logger log = LogManager.getLogger(FaceSearchService.class);
+    // Face matches resolved per metadata round trip when building a result.
+    private static final int RESOLVE_CHUNK_SIZE = 25;
+    // Consumer of the non-streaming searches; with it, matches are resolved in one bulk lookup instead of in chunks.
+    private static final Consumer<Match> NOT_STREAMING = match -> { };
 
-    private final RekognitionClient rekognitionClient;
+    private final FaceMatchingEngine faceMatching;
     private final FaceMetadataRepository metadataRepository;
     private final EventRepository eventRepository;
-    private final S3Presigner s3Presigner;
+    private final PresignedUrlCache presignedUrls;
+    private final RekognitionCallLimiter callLimiter;
     private final String bucket;
     private final Integer maxFaces;
     private final Float similarityThreshold;
-    private final Duration presignExpiration;
+    private final FaceIndexGenerations indexGenerations;
+    private final EventFaceMetadataCache metadataCache;
+    private final FaceClusterRepository clusterRepository;
+    private final boolean expandClusters;
+    private final Cache<SearchCacheKey, FaceSearchResult> resultCache;
+    private final ConcurrentMap<SearchCacheKey, CompletableFuture<FaceSearchResult>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalescedSearches;
 
     public FaceSearchService(
-            RekognitionClient rekognitionClient,
+            FaceMatchingEngine faceMatching,
             FaceMetadataRepository metadataRepository,
             EventRepository eventRepository,
-            S3Presigner s3Presigner,
+            PresignedUrlCache presignedUrls,
+            RekognitionCallLimiter callLimiter,
+            FaceIndexGenerations indexGenerations,
+            EventFaceMetadataCache metadataCache,
+            FaceClusterRepository clusterRepository,
+            MeterRegistry meterRegistry,
             @Value("${aws.s3.bucket:}") String bucket,
             @Value("${aws.rekognition.search.max-faces}") Integer maxFaces,
             @Value("${aws.rekognition.search.threshold}") Float similarityThreshold,
-            @Value("${aws.s3.presign.expiration-seconds:3600}") Long presignExpirationSeconds
+            @Value("${app.search.cache.max-entries:10000}") long cacheMaxEntries,
+            @Value("${app.search.cache.ttl-seconds:60}") long cacheTtlSeconds,
+            @Value("${app.search.clustering.expand-results:true}") boolean expandClusters
     ) {
-        this.rekognitionClient = Objects.requireNonNull(rekognitionClient, "rekognitionClient");
+        this.faceMatching = Objects.requireNonNull(faceMatching, "faceMatching");
         this.metadataRepository = Objects.requireNonNull(metadataRepository, "metadataRepository");
         this.eventRepository = Objects.requireNonNull(eventRepository, "eventRepository");
-        this.s3Presigner = Objects.requireNonNull(s3Presigner, "s3Presigner");
+        this.presignedUrls = Objects.requireNonNull(presignedUrls, "presignedUrls");
+        this.callLimiter = Objects.requireNonNull(callLimiter, "callLimiter");
         this.bucket = bucket;
         this.maxFaces = maxFaces;
         this.similarityThreshold = similarityThreshold;
-        this.presignExpiration = Duration.ofSeconds(
-                Optional.ofNullable(presignExpirationSeconds).filter(v -> v > 0).orElse(3600L)
-        );
+        this.indexGenerations = Objects.requireNonNull(indexGenerations, "indexGenerations");
+        this.metadataCache = Objects.requireNonNull(metadataCache, "metadataCache");
+        this.clusterRepository = Objects.requireNonNull(clusterRepository, "clusterRepository");
+        this.expandClusters = expandClusters;
+        // Cached results carry presigned URLs, which may already be part-way through their validity when cached.
+        Duration ttl = Duration.ofSeconds(Math.max(1L, cacheTtlSeconds));
+        Duration maxTtl = presignedUrls.minRemainingValidity().dividedBy(2);
+        this.resultCache = Caffeine.newBuilder()
+                .maximumSize(Math.max(0L, cacheMaxEntries))
+                .expireAfterWrite(ttl.compareTo(maxTtl) < 0 ? ttl : maxTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, resultCache, "faceSearchResults");
+        this.coalescedSearches = Counter.builder("face.search.coalesced")
+                .description("Face searches that joined an identical in-flight search instead of calling downstream")
+                .register(meterRegistry);
     }
 
     public FaceSearchResult searchFaces(String eventId, String photoKey) {
+        return photoKeySearch(eventId, photoKey, NOT_STREAMING).result();
+    }
+
+    /**
+     * Like {@link #searchFaces}, but hands each photo match to {@code onMatch} as soon as it is resolved and presigned,
+     * best match first, and returns a summary once the search is complete.
+     */
+    public SearchSummary streamSearchFaces(String eventId, String photoKey, Consumer<Match> onMatch) {
+        return photoKeySearch(eventId, photoKey, onMatch).summary();
+    }
+
+    /**
+     * Finds more photos of a face already indexed in the event, such as the face of an earlier match. Searches by face
+     * id, so the photo is neither fetched nor run through face detection again.
+     */
+    public FaceSearchResult searchFacesByFaceId(String eventId, String faceId) {
+        return faceIdSearch(eventId, faceId, NOT_STREAMING).result();
+    }
+
+    /**
+     * Streaming variant of {@link #searchFacesByFaceId}; see {@link #streamSearchFaces}.
+     */
+    public SearchSummary streamSearchFacesByFaceId(String eventId, String faceId, Consumer<Match> onMatch) {
+        return faceIdSearch(eventId, faceId, onMatch).summary();
+    }
+
+    private SearchExecution photoKeySearch(String eventId, String photoKey, Consumer<Match> onMatch) {
+        String normalizedKey = validateInputs(eventId, "photoKey", photoKey);
+        UUID eventUuid = UUID.fromString(eventId);
+        SearchCacheKey cacheKey = new SearchCacheKey(eventUuid, normalizedKey, null, indexGenerations.current(eventUuid));
+        boolean streaming = onMatch != NOT_STREAMING;
+        return execute(cacheKey, onMatch,
+                (sink, timings) -> runFullSearch(eventId, eventUuid, normalizedKey, null, streaming, sink, timings));
+    }
+
+    private SearchExecution faceIdSearch(String eventId, String faceId, Consumer<Match> onMatch) {
+        String normalizedFaceId = validateInputs(eventId, "faceId", faceId);
+        UUID eventUuid = UUID.fromString(eventId);
+        SearchCacheKey cacheKey = new SearchCacheKey(eventUuid, null, normalizedFaceId, indexGenerations.current(eventUuid));
+        boolean streaming = onMatch != NOT_STREAMING;
+        return execute(cacheKey, onMatch, (sink, timings) -> {
+            FaceMetadataRecord probe = resolveMetadata(eventUuid, List.of(normalizedFaceId)).get(normalizedFaceId);
+            if (probe == null || !eventId.equals(probe.eventId())) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Face not found in event");
+            }
+            return runFullSearch(eventId, eventUuid, probe.photoKey(), normalizedFaceId, streaming, sink, timings);
+        });
+    }
+
+    private SearchExecution execute(SearchCacheKey cacheKey, Consumer<Match> onMatch, SearchRun search) {
         long startNanos = System.nanoTime();
-        log.debug("Starting face search for event {} and probe key {}", eventId, photoKey);
-        String normalizedKey = validateInputs(eventId, photoKey);
-        Event event = eventRepository.findById(UUID.fromString(eventId)).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Event not found"));
-        String collectionId = event.getVectorCollectionId();
-        SearchFacesByImageResponse response = runSearch(normalizedKey, collectionId);
+        FaceSearchResult cached = resultCache.getIfPresent(cacheKey);
+        if (cached != null) {
+            log.debug("Serving cached face search for event {} probe {} (generation {})",
+                    cacheKey.eventId(), cacheKey.probe(), cacheKey.generation());
+            cached.matches().forEach(onMatch);
+            return new SearchExecution(cached, summarize(cached, SearchSource.CACHED, startNanos, null));
+        }
+        // Concurrent identical searches wait on the first caller's computation instead of repeating it.
+        CompletableFuture<FaceSearchResult> flight = new CompletableFuture<>();
+        CompletableFuture<FaceSearchResult> existing = inFlight.putIfAbsent(cacheKey, flight);
+        if (existing != null) {
+            coalescedSearches.increment();
+            FaceSearchResult shared = awaitInFlight(existing);
+            shared.matches().forEach(onMatch);
+            return new SearchExecution(shared, summarize(shared, SearchSource.COALESCED, startNanos, null));
+        }
+        // A failing consumer (e.g. a closed stream) must not fail the search for callers waiting on it.
+        MatchSink sink = new MatchSink(onMatch);
+        SearchTimings timings = new SearchTimings();
+        FaceSearchResult result;
+        try {
+            result = search.run(sink, timings);
+            resultCache.put(cacheKey, result);
+            flight.complete(result);
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, flight);
+        }
+        if (sink.failure != null) {
+            throw sink.failure;
+        }
+        return new SearchExecution(result, summarize(result, SearchSource.COMPUTED, startNanos, timings));
+    }
 
-        Map<String, AggregatedMatch> matchesByPhoto = new LinkedHashMap<>();
-        List<FaceMatch> faceMatches = response.faceMatches();
-        if (faceMatches != null) {
-            for (FaceMatch faceMatch : faceMatches) {
-                processMatch(eventId, normalizedKey, faceMatch, matchesByPhoto);
+    private static FaceSearchResult awaitInFlight(CompletableFuture<FaceSearchResult> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
             }
+            throw e;
         }
+    }
 
-        List<AggregatedMatch> aggregatedMatches = List.copyOf(matchesByPhoto.values());
-        List<Match> matchesWithUrls = aggregatedMatches.stream()
-                .map(this::toPresignedMatch)
-                .toList();
+    /**
+     * Searches with the probe face {@code probeFaceId} when given, otherwise with the largest face of the probe photo.
+     * Matches in the probe photo itself are left out. When {@code streaming}, face matches are resolved best first in
+     * chunks, so each photo is final, and handed to {@code onMatch}, the first time it is seen; otherwise they are
+     * resolved in a single lookup.
+     */
+    private FaceSearchResult runFullSearch(
+            String eventId,
+            UUID eventUuid,
+            String normalizedKey,
+            String probeFaceId,
+            boolean streaming,
+            Consumer<Match> onMatch,
+            SearchTimings timings
+    ) {
+        long startNanos = System.nanoTime();
+        log.debug("Starting face search for event {} and probe key {} (face {})", eventId, normalizedKey, probeFaceId);
+        Event event = eventRepository.findById(eventUuid).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Event not found"));
+        String collectionId = event.getVectorCollectionId();
+        List<FaceMatch> faceMatches = probeFaceId == null
+                ? runSearch(normalizedKey, collectionId)
+                : runSearchByFaceId(probeFaceId, collectionId);
+        timings.searchNanos = System.nanoTime() - startNanos;
+
+        List<Match> matchesWithUrls = new ArrayList<>();
+        if (!faceMatches.isEmpty()) {
+            Map<String, FaceMetadataRecord> metadataByFaceId = new HashMap<>();
+            // Direct matches first, then faces that only share a cluster with one of them.
+            List<FaceMatch> bestFirst = new ArrayList<>(faceMatches);
+            bestFirst.sort(Comparator.comparingDouble(FaceMatch::similarity).reversed());
+            if (expandClusters) {
+                List<FaceMatch> mates = findClusterMates(eventUuid, collectionId, faceMatches, metadataByFaceId);
+                mates.sort(Comparator.comparingDouble(FaceMatch::similarity).reversed());
+                bestFirst.addAll(mates);
+            }
+            Set<String> emittedPhotos = new HashSet<>();
+            int chunkSize = streaming ? RESOLVE_CHUNK_SIZE : bestFirst.size();
+            for (int from = 0; from < bestFirst.size(); from += chunkSize) {
+                List<FaceMatch> chunk = bestFirst.subList(from, Math.min(from + chunkSize, bestFirst.size()));
+                long metadataStart = System.nanoTime();
+                List<String> unresolved = chunk.stream()
+                        .map(FaceMatch::faceId)
+                        .filter(faceId -> !metadataByFaceId.containsKey(faceId))
+                        .toList();
+                if (!unresolved.isEmpty()) {
+                    metadataByFaceId.putAll(resolveMetadata(eventUuid, unresolved));
+                }
+                timings.metadataNanos += System.nanoTime() - metadataStart;
 
-        FaceSearchResult result = new FaceSearchResult(eventId, normalizedKey, matchesWithUrls);
+                Map<String, AggregatedMatch> chunkByPhoto = new LinkedHashMap<>();
+                for (FaceMatch faceMatch : chunk) {
+                    processMatch(eventId, normalizedKey, faceMatch, metadataByFaceId, chunkByPhoto);
+                }
+                for (AggregatedMatch aggregated : chunkByPhoto.values()) {
+                    if (!emittedPhotos.add(aggregated.photoKey())) {
+                        continue;
+                    }
+                    long presignStart = System.nanoTime();
+                    Match match = toPresignedMatch(aggregated);
+                    timings.presignNanos += System.nanoTime() - presignStart;
+                    matchesWithUrls.add(match);
+                    onMatch.accept(match);
+                }
+            }
+        }
+
+        FaceSearchResult result = new FaceSearchResult(eventId, normalizedKey, List.copyOf(matchesWithUrls));
         long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
         log.debug(
-                "Finished face search for event {} key {} -> {} aggregated matches ({} raw Rekognition matches) in {} ms",
+                "Finished face search for event {} key {} -> {} aggregated matches ({} raw face matches) in {} ms",
                 eventId,
                 normalizedKey,
-                aggregatedMatches.size(),
-                faceMatches == null ? 0 : faceMatches.size(),
+                matchesWithUrls.size(),
+                faceMatches.size(),
                 elapsedMillis
         );
         return result;
     }
 
-    private void processMatch(String eventId, String probeKey, FaceMatch faceMatch, Map<String, AggregatedMatch> matchesByPhoto) {
-        if (faceMatch == null || faceMatch.face() == null) {
+    private static SearchSummary summarize(FaceSearchResult result, SearchSource source, long startNanos, SearchTimings timings) {
+        return new SearchSummary(
+                result.eventId(),
+                result.probePhotoKey(),
+                result.matches().size(),
+                source,
+                (System.nanoTime() - startNanos) / 1_000_000,
+                timings == null ? null : timings.searchNanos / 1_000_000,
+                timings == null ? null : timings.metadataNanos / 1_000_000,
+                timings == null ? null : timings.presignNanos / 1_000_000
+        );
+    }
+
+    private Map<String, FaceMetadataRecord> resolveMetadata(UUID eventId, List<String> faceIds) {
+        Map<String, FaceMetadataRecord> cached = metadataCache.lookup(eventId, faceIds);
+        if (cached.size() == faceIds.size()) {
+            return cached;
+        }
+        List<String> missing = faceIds.stream()
+                .filter(faceId -> !cached.containsKey(faceId))
+                .toList();
+        Map<String, FaceMetadataRecord> resolved = new HashMap<>(cached);
+        resolved.putAll(metadataRepository.findByFaceIds(missing));
+        return resolved;
+    }
+
+    /**
+     * Returns the other faces of every person cluster a matched face belongs to. This also finds photos whose face
+     * alone scored below the search threshold; they are ranked after the direct matches.
+     */
+    private List<FaceMatch> findClusterMates(
+            UUID eventId,
+            String collectionId,
+            List<FaceMatch> faceMatches,
+            Map<String, FaceMetadataRecord> metadataByFaceId
+    ) {
+        Map<String, FaceMatch> directByFaceId = new HashMap<>();
+        for (FaceMatch faceMatch : faceMatches) {
+            directByFaceId.merge(faceMatch.faceId(), faceMatch,
+                    (a, b) -> a.similarity() >= b.similarity() ? a : b);
+        }
+        List<ClusteredFace> mates = clusterRepository.findClusterMates(eventId, directByFaceId.keySet());
+        if (mates.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // A mate is scored by its cluster's best direct match, but never above the weakest direct match.
+        float weakestDirect = Float.MAX_VALUE;
+        for (FaceMatch faceMatch : faceMatches) {
+            weakestDirect = Math.min(weakestDirect, faceMatch.similarity());
+        }
+        Map<UUID, Float> similarityByCluster = new HashMap<>();
+        for (ClusteredFace mate : mates) {
+            FaceMatch direct = directByFaceId.get(mate.faceId());
+            if (direct != null) {
+                similarityByCluster.merge(mate.clusterId(), direct.similarity(), Math::max);
+            }
+        }
+        List<FaceMatch> expanded = new ArrayList<>();
+        for (ClusteredFace mate : mates) {
+            Float similarity = similarityByCluster.get(mate.clusterId());
+            if (similarity == null || directByFaceId.containsKey(mate.faceId())) {
+                continue;
+            }
+            expanded.add(new FaceMatch(mate.faceId(), Math.min(similarity, weakestDirect), mate.confidence()));
+            metadataByFaceId.putIfAbsent(mate.faceId(), new FaceMetadataRecord(
+                    mate.faceId(),
+                    collectionId,
+                    eventId.toString(),
+                    bucket,
+                    mate.photoKey(),
+                    null,
+                    toBoundingBox(mate),
+                    mate.confidence()
+            ));
+        }
+        log.debug("Found {} cluster mates of {} face matches in {} clusters",
+                expanded.size(), faceMatches.size(), similarityByCluster.size());
+        return expanded;
+    }
+
+    private static BoundingBox toBoundingBox(ClusteredFace face) {
+        if (face.boxWidth() == null) {
+            return null;
+        }
+        return BoundingBox.builder()
+                .left(face.boxLeft())
+                .top(face.boxTop())
+                .width(face.boxWidth())
+                .height(face.boxHeight())
+                .build();
+    }
+
+    private void processMatch(
+            String eventId,
+            String probeKey,
+            FaceMatch faceMatch,
+            Map<String, FaceMetadataRecord> metadataByFaceId,
+            Map<String, AggregatedMatch> matchesByPhoto
+    ) {
+        if (faceMatch == null) {
             return;
         }
-        Face face = faceMatch.face();
-        metadataRepository.findByFaceId(face.faceId()).ifPresent(metadata -> {
+        Optional.ofNullable(metadataByFaceId.get(faceMatch.faceId())).ifPresent(metadata -> {
             if (!eventId.equals(metadata.eventId())) {
-                log.debug("Skipping face {} because event {} != {}", face.faceId(), metadata.eventId(), eventId);
+                log.debug("Skipping face {} because event {} != {}", faceMatch.faceId(), metadata.eventId(), eventId);
                 return;
             }
             if (probeKey.equals(metadata.photoKey())) {
-                log.debug("Skipping face {} because {} matches the probe image", face.faceId(), metadata.photoKey());
+                log.debug("Skipping face {} because {} matches the probe image", faceMatch.faceId(), metadata.photoKey());
                 return; // exclude the probe image itself
             }
 
             matchesByPhoto.compute(metadata.photoKey(), (key, existing) -> {
-                float similarity = faceMatch.similarity() == null ? 0F : faceMatch.similarity();
+                float similarity = faceMatch.similarity();
                 AggregatedMatch candidate = new AggregatedMatch(
                         metadata.photoKey(),
-                        face.faceId(),
+                        faceMatch.faceId(),
                         similarity,
-                        face.confidence(),
+                        faceMatch.confidence(),
                         metadata.boundingBox()
                 );
                 if (existing == null || similarity > existing.similarity()) {
                     log.trace(
                             "Updated match for photo {} with face {} (similarity={}, confidence={})",
                             metadata.photoKey(),
-                            face.faceId(),
+                            faceMatch.faceId(),
                             similarity,
-                            face.confidence()
+                            faceMatch.confidence()
                     );
                     return candidate;
                 }
@@ -135,73 +419,116 @@ public class FaceSearchService {
         });
     }
 
-    private SearchFacesByImageResponse runSearch(String photoKey, String collectionId) {
+    private List<FaceMatch> runSearch(String photoKey, String collectionId) {
         try {
-            SearchFacesByImageRequest.Builder searchFacesRequest = SearchFacesByImageRequest.builder()
-                    .collectionId(collectionId)
-                    .image(Image.builder()
-                            .s3Object(S3Object.builder()
-                                    .bucket(bucket)
-                                    .name(photoKey)
-                                    .build())
-                            .build());
-
-            if (maxFaces != null) {
-                searchFacesRequest.maxFaces(maxFaces);
-            }
-            if (similarityThreshold != null) {
-                searchFacesRequest.faceMatchThreshold(similarityThreshold);
-            }
-
             log.debug(
-                    "Invoking Rekognition searchFacesByImage for bucket {} key {} collection {} maxFaces={} threshold={}",
+                    "Searching faces by image for bucket {} key {} collection {} maxFaces={} threshold={}",
                     bucket,
                     photoKey,
                     collectionId,
                     maxFaces,
                     similarityThreshold
             );
-            return rekognitionClient.searchFacesByImage(searchFacesRequest.build());
+            return callLimiter.call(Priority.INTERACTIVE,
+                    () -> faceMatching.searchByImage(collectionId, bucket, photoKey, maxFaces, similarityThreshold));
         } catch (SdkException e) {
             log.error("searchFacesByImage failed for key {}", photoKey, e);
             throw e;
         }
     }
 
-    private String validateInputs(String eventId, String photoKey) {
+    private List<FaceMatch> runSearchByFaceId(String faceId, String collectionId) {
+        try {
+            log.debug("Searching faces by face id {} collection {} maxFaces={} threshold={}",
+                    faceId, collectionId, maxFaces, similarityThreshold);
+            return callLimiter.call(Priority.INTERACTIVE,
+                    () -> faceMatching.searchByFaceId(collectionId, faceId, maxFaces, similarityThreshold));
+        } catch (SdkException e) {
+            log.error("searchFaces failed for face {}", faceId, e);
+            throw e;
+        }
+    }
+
+    private String validateInputs(String eventId, String probeName, String probe) {
         if (bucket == null || bucket.isBlank()) {
             throw new IllegalStateException("S3 bucket name (aws.s3.bucket) is not configured");
         }
         if (eventId == null || eventId.isBlank()) {
             throw new IllegalArgumentException("eventId must not be blank");
         }
-        if (photoKey == null || photoKey.isBlank()) {
-            throw new IllegalArgumentException("photoKey must not be blank");
+        if (probe == null || probe.isBlank()) {
+            throw new IllegalArgumentException(probeName + " must not be blank");
         }
-        return photoKey.trim();
+        return probe.trim();
     }
 
     private Match toPresignedMatch(AggregatedMatch match) {
-        GetObjectRequest getRequest = GetObjectRequest.builder()
-                .bucket(bucket)
-                .key(match.photoKey())
-                .build();
+        String presignedUrl = presignedUrls.presignGet(bucket, match.photoKey());
+        return new Match(match.photoKey(), presignedUrl, match.faceId(), match.similarity(), match.confidence(), match.boundingBox());
+    }
 
-        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
-                .signatureDuration(presignExpiration)
-                .getObjectRequest(getRequest)
-                .build();
+    // Exactly one of probeKey and probeFaceId is set.
+    private record SearchCacheKey(UUID eventId, String probeKey, String probeFaceId, long generation) {
 
-        String presignedUrl = s3Presigner.presignGetObject(presignRequest)
-                .url()
-                .toExternalForm();
+        String probe() {
+            return probeKey != null ? probeKey : "face " + probeFaceId;
+        }
+    }
+
+    @FunctionalInterface
+    private interface SearchRun {
+        FaceSearchResult run(Consumer<Match> onMatch, SearchTimings timings);
+    }
 
-        return new Match(presignedUrl, match.faceId(), match.similarity(), match.confidence(), match.boundingBox());
+    private static final class SearchTimings {
+        private long searchNanos;
+        private long metadataNanos;
+        private long presignNanos;
     }
 
+    private static final class MatchSink implements Consumer<Match> {
+
+        private final Consumer<Match> delegate;
+        private RuntimeException failure;
+
+        private MatchSink(Consumer<Match> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void accept(Match match) {
+            if (failure != null) {
+                return;
+            }
+            try {
+                delegate.accept(match);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+    }
+
+    private record SearchExecution(FaceSearchResult result, SearchSummary summary) {}
+
+    public enum SearchSource { COMPUTED, CACHED, COALESCED }
+
+    /**
+     * Outcome of a streamed search. The step timings are only set when the search was computed for this call.
+     */
+    public record SearchSummary(
+            String eventId,
+            String probePhotoKey,
+            int matches,
+            SearchSource source,
+            long totalMillis,
+            Long searchMillis,
+            Long metadataMillis,
+            Long presignMillis
+    ) {}
+
     public record FaceSearchResult(String eventId, String probePhotoKey, List<Match> matches) {}
 
     private record AggregatedMatch(String photoKey, String faceId, float similarity, Float confidence, BoundingBox boundingBox) {}
 
-    public record Match(String photoUrl, String faceId, float similarity, Float confidence, BoundingBox boundingBox) {}
+    public record Match(String photoKey, String photoUrl, String faceId, float similarity, Float confidence, BoundingBox boundingBox) {}
 }
@@ -0,0 +1,103 @@
+package com.racephotos.service.selfie;
+
+import com.racephotos.auth.user.UserSelfie;
+import com.racephotos.service.search.FaceSearchService.FaceSearchResult;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Runs a user's selfie search in several events at once, one virtual thread per event, and hands each event's outcome
+ * over as soon as that event finishes. Every event has its own timeout, so one slow collection delays only itself.
+ */
+@Service
+public class SelfieFanOutSearchService {
+
+    private static final Logger log = LogManager.getLogger(SelfieFanOutSearchService.class);
+
+    private final SelfieMatchService selfieMatchService;
+    private final Executor executor;
+    private final Duration eventTimeout;
+    private final Duration streamTimeout;
+
+    public SelfieFanOutSearchService(
+            SelfieMatchService selfieMatchService,
+            @Qualifier("searchFanOutExecutor") Executor executor,
+            @Value("${app.search.fan-out.event-timeout-millis:10000}") long eventTimeoutMillis,
+            @Value("${app.search.fan-out.stream-timeout-millis:60000}") long streamTimeoutMillis
+    ) {
+        this.selfieMatchService = Objects.requireNonNull(selfieMatchService, "selfieMatchService");
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.eventTimeout = Duration.ofMillis(Math.max(1L, eventTimeoutMillis));
+        this.streamTimeout = Duration.ofMillis(Math.max(eventTimeoutMillis, streamTimeoutMillis));
+    }
+
+    /**
+     * Upper bound for a whole fan-out, for callers that hold a connection open while it runs.
+     */
+    public Duration streamTimeout() {
+        return streamTimeout;
+    }
+
+    /**
+     * Starts searching every event and passes each outcome to {@code onOutcome} from the thread that finished it. The
+     * returned future completes once all outcomes have been handed over. A search that times out keeps running in the
+     * background, so its matches are still persisted for the next request.
+     */
+    public CompletableFuture<Void> searchEvents(
+            UUID userId,
+            UserSelfie selfie,
+            Collection<UUID> eventIds,
+            Consumer<EventSearchOutcome> onOutcome
+    ) {
+        List<CompletableFuture<Void>> searches = new ArrayList<>(eventIds.size());
+        for (UUID eventId : eventIds) {
+            long startNanos = System.nanoTime();
+            searches.add(CompletableFuture
+                    .supplyAsync(() -> selfieMatchService.findMatches(userId, eventId, selfie), executor)
+                    .orTimeout(eventTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .handle((result, error) -> toOutcome(eventId, result, error, startNanos))
+                    .thenAccept(onOutcome));
+        }
+        return CompletableFuture.allOf(searches.toArray(CompletableFuture[]::new));
+    }
+
+    private EventSearchOutcome toOutcome(UUID eventId, FaceSearchResult result, Throwable error, long startNanos) {
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        if (error == null) {
+            return new EventSearchOutcome(eventId, result, null, elapsedMillis);
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String reason;
+        if (cause instanceof TimeoutException) {
+            reason = "Timed out";
+        } else if (cause instanceof ResponseStatusException status && status.getReason() != null) {
+            reason = status.getReason();
+        } else {
+            reason = "Search failed";
+        }
+        log.warn("Selfie search in event {} failed after {} ms: {}", eventId, elapsedMillis, cause.toString());
+        return new EventSearchOutcome(eventId, null, reason, elapsedMillis);
+    }
+
+    /**
+     * Either {@code result} or {@code error} is set.
+     */
+    public record EventSearchOutcome(UUID eventId, FaceSearchResult result, String error, long elapsedMillis) { }
+}
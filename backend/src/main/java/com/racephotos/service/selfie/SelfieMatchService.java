@@ -0,0 +1,268 @@
+package com.racephotos.service.selfie;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.racephotos.auth.user.AccessGrantStatus;
+import com.racephotos.auth.user.EventAccessGrantRepository;
+import com.racephotos.auth.user.SelfieMatchSeedRepository;
+import com.racephotos.auth.user.UserPhotoMatch;
+import com.racephotos.auth.user.UserPhotoMatchRepository;
+import com.racephotos.auth.user.UserSelfie;
+import com.racephotos.auth.user.UserSelfieRepository;
+import com.racephotos.service.facematch.FaceMatchingEngine;
+import com.racephotos.service.facematch.FaceMatchingEngine.FaceMatch;
+import com.racephotos.service.facematch.FaceMatchingEngine.IndexedFace;
+import com.racephotos.service.rekognition.RekognitionCallLimiter;
+import com.racephotos.service.rekognition.RekognitionCallLimiter.Priority;
+import com.racephotos.service.search.FaceSearchService;
+import com.racephotos.service.search.FaceSearchService.FaceSearchResult;
+import com.racephotos.service.search.FaceSearchService.Match;
+import com.racephotos.service.storage.PresignedUrlCache;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.rekognition.model.BoundingBox;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Keeps a persisted list of matched photos per user and event, so selfie searches are served from the database.
+ * <p>
+ * The list is seeded once per event and selfie face with a regular face search over the photos indexed so far.
+ * Photos indexed later are pushed in by {@link #matchNewFaces}: their faces are searched against the selfie
+ * collection, and hits are kept for users holding an ACTIVE access grant to the event.
+ * <p>
+ * Reverse matching can miss photos: it may fail, and for one cache period after a user gains access it may run with
+ * an eligible-users list that does not contain them yet. So a new seed is searched once more after that period, and a
+ * failed reverse match expires all seeds of the event; both are repaired by the next selfie search.
+ */
+@Service
+public class SelfieMatchService {
+
+    private static final Logger log = LogManager.getLogger(SelfieMatchService.class);
+
+    private final FaceMatchingEngine faceMatching;
+    private final FaceSearchService faceSearchService;
+    private final RekognitionCallLimiter callLimiter;
+    private final EventAccessGrantRepository accessGrantRepository;
+    private final UserSelfieRepository selfieRepository;
+    private final UserPhotoMatchRepository matchRepository;
+    private final SelfieMatchSeedRepository seedRepository;
+    private final PresignedUrlCache presignedUrls;
+    private final String bucket;
+    private final String selfieCollectionId;
+    private final boolean reverseMatchingEnabled;
+    private final float threshold;
+    private final int maxMatchesPerFace;
+    private final Duration eligibleUsersTtl;
+    private final Cache<UUID, Set<UUID>> eligibleUsersByEvent;
+    private final Semaphore backlog;
+    private final Semaphore running;
+
+    public SelfieMatchService(
+            FaceMatchingEngine faceMatching,
+            FaceSearchService faceSearchService,
+            RekognitionCallLimiter callLimiter,
+            EventAccessGrantRepository accessGrantRepository,
+            UserSelfieRepository selfieRepository,
+            UserPhotoMatchRepository matchRepository,
+            SelfieMatchSeedRepository seedRepository,
+            PresignedUrlCache presignedUrls,
+            @Value("${aws.s3.bucket:}") String bucket,
+            @Value("${aws.rekognition.selfie-collection-id:selfies}") String selfieCollectionId,
+            @Value("${app.selfie.reverse-matching.enabled:true}") boolean reverseMatchingEnabled,
+            @Value("${app.selfie.reverse-matching.threshold:90}") float threshold,
+            @Value("${app.selfie.reverse-matching.max-matches-per-face:5}") int maxMatchesPerFace,
+            @Value("${app.selfie.reverse-matching.eligible-users-ttl-seconds:30}") long eligibleUsersTtlSeconds,
+            @Value("${app.selfie.reverse-matching.queue-capacity:1000}") int queueCapacity,
+            @Value("${app.selfie.reverse-matching.max-concurrency:4}") int maxConcurrency
+    ) {
+        this.faceMatching = Objects.requireNonNull(faceMatching, "faceMatching");
+        this.faceSearchService = Objects.requireNonNull(faceSearchService, "faceSearchService");
+        this.callLimiter = Objects.requireNonNull(callLimiter, "callLimiter");
+        this.accessGrantRepository = Objects.requireNonNull(accessGrantRepository, "accessGrantRepository");
+        this.selfieRepository = Objects.requireNonNull(selfieRepository, "selfieRepository");
+        this.matchRepository = Objects.requireNonNull(matchRepository, "matchRepository");
+        this.seedRepository = Objects.requireNonNull(seedRepository, "seedRepository");
+        this.presignedUrls = Objects.requireNonNull(presignedUrls, "presignedUrls");
+        this.bucket = bucket;
+        this.selfieCollectionId = selfieCollectionId;
+        this.reverseMatchingEnabled = reverseMatchingEnabled;
+        this.threshold = threshold;
+        this.maxMatchesPerFace = Math.max(1, maxMatchesPerFace);
+        this.eligibleUsersTtl = Duration.ofSeconds(Math.max(1L, eligibleUsersTtlSeconds));
+        this.eligibleUsersByEvent = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(eligibleUsersTtl)
+                .build();
+        this.backlog = new Semaphore(Math.max(1, queueCapacity));
+        this.running = new Semaphore(Math.max(1, maxConcurrency));
+    }
+
+    /**
+     * Returns the user's matches in the event, seeding them with a face search first if the event has not been
+     * searched with the current selfie face yet or the seed has expired.
+     */
+    public FaceSearchResult findMatches(UUID userId, UUID eventId, UserSelfie selfie) {
+        String selfieFaceId = selfie.getFaceId();
+        Instant startedAt = Instant.now();
+        boolean seeded = seedRepository.findByUserIdAndEventId(userId, eventId)
+                .filter(seed -> seed.isCurrent(selfieFaceId, startedAt))
+                .isPresent();
+        if (!seeded) {
+            FaceSearchResult result = faceSearchService.searchFaces(eventId.toString(), selfie.getS3Key());
+            for (Match match : result.matches()) {
+                store(userId, eventId, match.photoKey(), match.faceId(), match.similarity(), match.confidence(),
+                        match.boundingBox());
+            }
+            seedRepository.upsert(userId, eventId, selfieFaceId, startedAt, startedAt.plus(eligibleUsersTtl));
+            log.info("Seeded {} selfie matches for user {} in event {}", result.matches().size(), userId, eventId);
+        }
+
+        List<Match> matches = matchRepository.findByUserIdAndEventIdOrderBySimilarityDesc(userId, eventId).stream()
+                .map(this::toMatch)
+                .toList();
+        return new FaceSearchResult(eventId.toString(), selfie.getS3Key(), matches);
+    }
+
+    /**
+     * Queues a search of freshly indexed faces of an event photo against the selfie collection; hits are recorded for
+     * users with an ACTIVE grant to the event. Runs in the background with bounded concurrency, so it never slows down
+     * or fails the indexing of the photo. When the queue is full or the search fails, the event's seeds are expired.
+     */
+    public void matchNewFaces(UUID eventId, String photoKey, List<IndexedFace> faces) {
+        if (!reverseMatchingEnabled || faces.isEmpty()) {
+            return;
+        }
+        if (!backlog.tryAcquire()) {
+            log.warn("Reverse selfie matching queue full, skipping event={} key={}", eventId, photoKey);
+            expireSeeds(eventId);
+            return;
+        }
+        List<IndexedFace> probes = List.copyOf(faces);
+        try {
+            Thread.ofVirtual().name("reverse-selfie-match").start(() -> {
+                try {
+                    running.acquire();
+                    try {
+                        matchFaces(eventId, photoKey, probes);
+                    } finally {
+                        running.release();
+                    }
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    expireSeeds(eventId);
+                } finally {
+                    backlog.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            backlog.release();
+            log.warn("Could not start reverse selfie matching for event={} key={}: {}", eventId, photoKey, e.getMessage());
+            expireSeeds(eventId);
+        }
+    }
+
+    private void matchFaces(UUID eventId, String photoKey, List<IndexedFace> faces) {
+        try {
+            Set<UUID> eligible = eligibleUsersByEvent.get(eventId, this::loadEligibleUsers);
+            if (eligible.isEmpty()) {
+                return;
+            }
+            Map<String, List<FaceMatch>> hitsByPhotoFace = faceMatching.searchByFaces(selfieCollectionId, bucket,
+                    photoKey, faces, maxMatchesPerFace, threshold, probe -> callLimiter.call(Priority.BACKGROUND, probe));
+            // Best hit per selfie face, remembering which face of the photo produced it.
+            Map<String, FaceMatch> bestBySelfieFace = new HashMap<>();
+            Map<String, IndexedFace> photoFaceBySelfieFace = new HashMap<>();
+            for (IndexedFace face : faces) {
+                for (FaceMatch hit : hitsByPhotoFace.getOrDefault(face.faceId(), List.of())) {
+                    FaceMatch best = bestBySelfieFace.get(hit.faceId());
+                    if (best == null || hit.similarity() > best.similarity()) {
+                        bestBySelfieFace.put(hit.faceId(), hit);
+                        photoFaceBySelfieFace.put(hit.faceId(), face);
+                    }
+                }
+            }
+            if (bestBySelfieFace.isEmpty()) {
+                return;
+            }
+            for (UserSelfie selfie : selfieRepository.findByFaceIdIn(bestBySelfieFace.keySet())) {
+                UUID userId = selfie.getUser().getId();
+                if (!eligible.contains(userId)) {
+                    continue;
+                }
+                FaceMatch hit = bestBySelfieFace.get(selfie.getFaceId());
+                IndexedFace photoFace = photoFaceBySelfieFace.get(selfie.getFaceId());
+                store(userId, eventId, photoKey, photoFace.faceId(), hit.similarity(), photoFace.confidence(),
+                        photoFace.boundingBox());
+                log.debug("Matched photo {} of event {} to user {} (similarity {})",
+                        photoKey, eventId, userId, hit.similarity());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Reverse selfie matching failed for event={} key={}: {}", eventId, photoKey, e.getMessage());
+            expireSeeds(eventId);
+        }
+    }
+
+    private void expireSeeds(UUID eventId) {
+        try {
+            int expired = seedRepository.expireByEventId(eventId, Instant.now());
+            log.debug("Expired {} selfie match seeds of event {}", expired, eventId);
+        } catch (RuntimeException e) {
+            log.error("Failed to expire selfie match seeds of event {}: {}", eventId, e.getMessage());
+        }
+    }
+
+    private Set<UUID> loadEligibleUsers(UUID eventId) {
+        List<UUID> granted = accessGrantRepository.findUserIdsByEventIdAndStatus(eventId, AccessGrantStatus.ACTIVE);
+        if (granted.isEmpty()) {
+            return Set.of();
+        }
+        return Set.copyOf(selfieRepository.findUserIdsWithSelfie(granted));
+    }
+
+    private void store(
+            UUID userId,
+            UUID eventId,
+            String photoKey,
+            String faceId,
+            float similarity,
+            Float confidence,
+            BoundingBox box
+    ) {
+        matchRepository.upsert(userId, eventId, photoKey, faceId, similarity, confidence,
+                box == null ? null : box.left(),
+                box == null ? null : box.top(),
+                box == null ? null : box.width(),
+                box == null ? null : box.height());
+    }
+
+    private Match toMatch(UserPhotoMatch match) {
+        BoundingBox box = null;
+        if (match.getBoxWidth() != null) {
+            box = BoundingBox.builder()
+                    .left(match.getBoxLeft())
+                    .top(match.getBoxTop())
+                    .width(match.getBoxWidth())
+                    .height(match.getBoxHeight())
+                    .build();
+        }
+        return new Match(
+                match.getPhotoKey(),
+                presignedUrls.presignGet(bucket, match.getPhotoKey()),
+                match.getFaceId(),
+                match.getSimilarity(),
+                match.getConfidence(),
+                box
+        );
+    }
+}
@@ -1,10 +1,16 @@
 package com.racephotos.service.selfie;
 
 import com.racephotos.auth.session.SessionUser;
+import com.racephotos.auth.user.SelfieMatchSeedRepository;
 import com.racephotos.auth.user.User;
+import com.racephotos.auth.user.UserPhotoMatchRepository;
 import com.racephotos.auth.user.UserRepository;
 import com.racephotos.auth.user.UserSelfie;
 import com.racephotos.auth.user.UserSelfieRepository;
+import com.racephotos.service.facematch.FaceMatchingEngine;
+import com.racephotos.service.facematch.FaceMatchingEngine.IndexedFace;
+import com.racephotos.service.rekognition.RekognitionCallLimiter;
+import com.racephotos.service.rekognition.RekognitionCallLimiter.Priority;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,17 +20,13 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.rekognition.RekognitionClient;
-import software.amazon.awssdk.services.rekognition.model.*;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
 import java.io.IOException;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -35,26 +37,34 @@ public class SelfieService {
     private static final float SIMILARITY_THRESHOLD = 90.0f;
     private static final int MAX_UPLOADS = 5;
 
-    private final RekognitionClient rekognitionClient;
+    private final FaceMatchingEngine faceMatching;
     private final S3Client s3Client;
     private final UserRepository userRepository;
     private final UserSelfieRepository selfieRepository;
+    private final UserPhotoMatchRepository photoMatchRepository;
+    private final SelfieMatchSeedRepository seedRepository;
+    private final RekognitionCallLimiter callLimiter;
     private final String bucket;
     private final String selfieCollectionId;
-    private final Set<String> ensuredCollections = Collections.newSetFromMap(new java.util.concurrent.ConcurrentHashMap<>());
 
     public SelfieService(
-            RekognitionClient rekognitionClient,
+            FaceMatchingEngine faceMatching,
             S3Client s3Client,
             UserRepository userRepository,
             UserSelfieRepository selfieRepository,
+            UserPhotoMatchRepository photoMatchRepository,
+            SelfieMatchSeedRepository seedRepository,
+            RekognitionCallLimiter callLimiter,
             @Value("${aws.s3.bucket:}") String bucket,
             @Value("${aws.rekognition.selfie-collection-id:selfies}") String selfieCollectionId
     ) {
-        this.rekognitionClient = Objects.requireNonNull(rekognitionClient, "rekognitionClient");
+        this.faceMatching = Objects.requireNonNull(faceMatching, "faceMatching");
         this.s3Client = Objects.requireNonNull(s3Client, "s3Client");
         this.userRepository = Objects.requireNonNull(userRepository, "userRepository");
         this.selfieRepository = Objects.requireNonNull(selfieRepository, "selfieRepository");
+        this.photoMatchRepository = Objects.requireNonNull(photoMatchRepository, "photoMatchRepository");
+        this.seedRepository = Objects.requireNonNull(seedRepository, "seedRepository");
+        this.callLimiter = Objects.requireNonNull(callLimiter, "callLimiter");
         this.bucket = bucket;
         this.selfieCollectionId = selfieCollectionId;
     }
@@ -83,9 +93,8 @@ public class SelfieService {
 
         try {
             putObject(key, file);
-            IndexFacesResponse indexed = indexSelfie(key, user.getId());
-            List<FaceRecord> faces = indexed.faceRecords();
-            if (faces == null || faces.isEmpty()) {
+            List<IndexedFace> faces = indexSelfie(key, user.getId());
+            if (faces.isEmpty()) {
                 cleanupNewUpload(key, null);
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No face detected in the selfie");
             }
@@ -94,7 +103,7 @@ public class SelfieService {
                 throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Only one face is allowed in the selfie");
             }
 
-            String newFaceId = faces.get(0).face().faceId();
+            String newFaceId = faces.get(0).faceId();
             if (newFaceId == null || newFaceId.isBlank()) {
                 cleanupNewUpload(key, extractFaceIds(faces));
                 throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to index selfie face");
@@ -139,7 +148,10 @@ public class SelfieService {
         deleteFace(selfie.getFaceId());
         deleteObject(selfie.getS3Key());
         selfieRepository.delete(selfie);
-        log.info("Deleted selfie for user {} (faceId {})", userId, selfie.getFaceId());
+        // Matches belong to the deleted face; a later selfie starts from fresh seeds.
+        int matches = photoMatchRepository.deleteByUserId(userId);
+        seedRepository.deleteByUserId(userId);
+        log.info("Deleted selfie for user {} (faceId {}) and {} photo matches", userId, selfie.getFaceId(), matches);
     }
 
     private void validateFile(MultipartFile file) {
@@ -155,26 +167,7 @@ public class SelfieService {
         if (selfieCollectionId == null || selfieCollectionId.isBlank()) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Selfie collection id not configured");
         }
-        if (ensuredCollections.contains(selfieCollectionId)) {
-            return;
-        }
-        synchronized (ensuredCollections) {
-            if (ensuredCollections.contains(selfieCollectionId)) {
-                return;
-            }
-            try {
-                rekognitionClient.describeCollection(DescribeCollectionRequest.builder()
-                        .collectionId(selfieCollectionId)
-                        .build());
-                log.debug("Selfie collection '{}' already exists", selfieCollectionId);
-            } catch (ResourceNotFoundException notFound) {
-                log.info("Creating selfie collection '{}'", selfieCollectionId);
-                rekognitionClient.createCollection(CreateCollectionRequest.builder()
-                        .collectionId(selfieCollectionId)
-                        .build());
-            }
-            ensuredCollections.add(selfieCollectionId);
-        }
+        faceMatching.ensureCollection(selfieCollectionId);
     }
 
     private void putObject(String key, MultipartFile file) throws IOException {
@@ -187,54 +180,21 @@ public class SelfieService {
         s3Client.putObject(put, RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
     }
 
-    private IndexFacesResponse indexSelfie(String key, UUID userId) {
-        IndexFacesRequest request = IndexFacesRequest.builder()
-                .collectionId(selfieCollectionId)
-                .externalImageId(userId.toString())
-                .qualityFilter(QualityFilter.AUTO)
-                .image(Image.builder()
-                        .s3Object(S3Object.builder()
-                                .bucket(bucket)
-                                .name(key)
-                                .build())
-                        .build())
-                .build();
-        return rekognitionClient.indexFaces(request);
+    private List<IndexedFace> indexSelfie(String key, UUID userId) {
+        return callLimiter.call(Priority.INTERACTIVE,
+                () -> faceMatching.indexFaces(selfieCollectionId, bucket, key, userId.toString()));
     }
 
     private float compareFaces(String existingKey, String newKey) {
-        CompareFacesRequest request = CompareFacesRequest.builder()
-                .sourceImage(imageFromKey(existingKey))
-                .targetImage(imageFromKey(newKey))
-                .similarityThreshold(SIMILARITY_THRESHOLD)
-                .build();
-        CompareFacesResponse response = rekognitionClient.compareFaces(request);
-        double max = response.faceMatches() == null ? 0.0 : response.faceMatches().stream()
-                .map(CompareFacesMatch::similarity)
-                .filter(Objects::nonNull)
-                .mapToDouble(Float::doubleValue)
-                .max()
-                .orElse(0.0);
-        return (float) max;
-    }
-
-    private Image imageFromKey(String key) {
-        return Image.builder()
-                .s3Object(S3Object.builder()
-                        .bucket(bucket)
-                        .name(key)
-                        .build())
-                .build();
+        return callLimiter.call(Priority.INTERACTIVE,
+                () -> faceMatching.compareFaces(bucket, existingKey, newKey, SIMILARITY_THRESHOLD));
     }
 
     private void deleteFace(String faceId) {
         if (faceId == null || faceId.isBlank()) {
             return;
         }
-        rekognitionClient.deleteFaces(DeleteFacesRequest.builder()
-                .collectionId(selfieCollectionId)
-                .faceIds(faceId)
-                .build());
+        faceMatching.deleteFaces(selfieCollectionId, List.of(faceId));
     }
 
     private void deleteObject(String key) {
@@ -259,15 +219,12 @@ public class SelfieService {
     }
 
     private void deleteFaces(List<String> faceIds) {
-        rekognitionClient.deleteFaces(DeleteFacesRequest.builder()
-                .collectionId(selfieCollectionId)
-                .faceIds(faceIds)
-                .build());
+        faceMatching.deleteFaces(selfieCollectionId, faceIds);
     }
 
-    private List<String> extractFaceIds(List<FaceRecord> records) {
-        return records.stream()
-                .map(fr -> fr.face() == null ? null : fr.face().faceId())
+    private List<String> extractFaceIds(List<IndexedFace> faces) {
+        return faces.stream()
+                .map(IndexedFace::faceId)
                 .filter(Objects::nonNull)
                 .toList();
     }
@@ -0,0 +1,78 @@
+package com.racephotos.service.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Hands out presigned GET URLs, reusing a previously signed URL while its remaining validity is at least
+ * {@link #minRemainingValidity()}. Stable URLs let browsers and CDNs cache the photos across repeated searches.
+ */
+@Component
+public class PresignedUrlCache {
+
+    private final S3Presigner presigner;
+    private final Duration signatureDuration;
+    private final Duration minRemainingValidity;
+    private final Cache<ObjectRef, String> urls;
+
+    public PresignedUrlCache(
+            S3Presigner presigner,
+            MeterRegistry meterRegistry,
+            @Value("${aws.s3.presign.expiration-seconds:3600}") long expirationSeconds,
+            @Value("${aws.s3.presign.reuse-min-remaining-seconds:0}") long minRemainingSeconds,
+            @Value("${aws.s3.presign.cache-max-entries:50000}") long maxEntries
+    ) {
+        this.presigner = Objects.requireNonNull(presigner, "presigner");
+        this.signatureDuration = Duration.ofSeconds(expirationSeconds > 0 ? expirationSeconds : 3600L);
+        // Default to reusing a URL for the first half of its lifetime.
+        long remaining = minRemainingSeconds > 0 && minRemainingSeconds < signatureDuration.toSeconds()
+                ? minRemainingSeconds
+                : signatureDuration.toSeconds() / 2;
+        this.minRemainingValidity = Duration.ofSeconds(Math.max(1L, remaining));
+        this.urls = Caffeine.newBuilder()
+                .maximumSize(Math.max(0L, maxEntries))
+                .expireAfterWrite(signatureDuration.minus(minRemainingValidity))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, urls, "presignedGetUrls");
+    }
+
+    public String presignGet(String bucket, String key) {
+        return urls.get(new ObjectRef(bucket, key), this::sign);
+    }
+
+    /**
+     * Minimum validity left on any URL returned by {@link #presignGet}.
+     */
+    public Duration minRemainingValidity() {
+        return minRemainingValidity;
+    }
+
+    private String sign(ObjectRef ref) {
+        GetObjectRequest getRequest = GetObjectRequest.builder()
+                .bucket(ref.bucket())
+                .key(ref.key())
+                .build();
+
+        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
+                .signatureDuration(signatureDuration)
+                .getObjectRequest(getRequest)
+                .build();
+
+        return presigner.presignGetObject(presignRequest)
+                .url()
+                .toExternalForm();
+    }
+
+    private record ObjectRef(String bucket, String key) {}
+}
@@ -109,6 +109,17 @@ resource "aws_dynamodb_table" "face_metadata" {
     name = "faceId"
     type = "S"
   }
+
+  attribute {
+    name = "eventId"
+    type = "S"
+  }
+
+  global_secondary_index {
+    name            = var.dynamodb_event_index_name
+    hash_key        = "eventId"
+    projection_type = "ALL"
+  }
 }
 
 resource "aws_rekognition_collection" "selfies" {
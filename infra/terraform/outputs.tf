@@ -23,6 +23,11 @@ output "dynamodb_table_arn" {
   value       = aws_dynamodb_table.face_metadata.arn
 }
 
+output "dynamodb_event_index_name" {
+  description = "Name of the eventId GSI on the face metadata table (AWS_DYNAMODB_EVENT_INDEX)."
+  value       = var.dynamodb_event_index_name
+}
+
 output "rekognition_selfie_collection_id" {
   description = "ID of the Rekognition collection used for selfies."
   value       = aws_rekognition_collection.selfies.collection_id
@@ -16,6 +16,12 @@ variable "dynamodb_table_name" {
   default     = "race-photos-face-metadata"
 }
 
+variable "dynamodb_event_index_name" {
+  description = "Global secondary index on eventId, used to load all faces of an event (cache warm-up, clustering)."
+  type        = string
+  default     = "eventId-index"
+}
+
 variable "rekognition_selfie_collection_id" {
   description = "Rekognition collection ID for selfies (used by the app for user selfies)."
   type        = string